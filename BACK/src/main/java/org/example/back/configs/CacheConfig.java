@@ -0,0 +1,81 @@
+package org.example.back.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_PAGES = "productPages";
+    public static final String PRODUCTS_BY_BRAND = "productsByBrand";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+    public static final String ORDER_COUNTS = "orderCounts";
+    public static final String USER_ORDER_STATISTICS = "userOrderStatistics";
+
+    // Caches cuyo contenido es un listado de productos (Page o List)
+    public static final List<String> PRODUCT_LISTINGS = List.of(PRODUCT_PAGES, PRODUCTS_BY_BRAND, PRODUCTS_BY_CATEGORY);
+
+    @Value("${catalog.cache.maximum-size:1000}")
+    private long maximumSize;
+
+    @Value("${catalog.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${orders.count-cache.ttl-seconds:30}")
+    private long orderCountTtlSeconds;
+
+    @Value("${catalog.http.max-age-seconds:60}")
+    private long httpMaxAgeSeconds;
+
+    @Value("${catalog.http.s-max-age-seconds:300}")
+    private long httpSharedMaxAgeSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                // Los caches del catálogo guardan modelos mutables compartidos entre requests
+                if (name.equals(PRODUCTS) || PRODUCT_LISTINGS.contains(name)) {
+                    return new CopyOnReadCaffeineCache(name, cache, isAllowNullValues());
+                }
+                return super.adaptCaffeineCache(name, cache);
+            }
+        };
+        cacheManager.setCacheNames(List.of(
+                PRODUCTS, PRODUCT_PAGES, PRODUCTS_BY_BRAND, PRODUCTS_BY_CATEGORY, USER_ORDER_STATISTICS));
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        // Totales del listado de órdenes: vencimiento corto, el total puede quedar desfasado unos segundos
+        cacheManager.registerCustomCache(ORDER_COUNTS, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(orderCountTtlSeconds))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    // Cabecera Cache-Control de los endpoints públicos del catálogo: el navegador revalida con ETag
+    // al vencer max-age y un CDN puede servir la respuesta durante s-maxage
+    @Bean
+    public CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(httpMaxAgeSeconds))
+                .sMaxAge(Duration.ofSeconds(httpSharedMaxAgeSeconds))
+                .cachePublic();
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.back.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.example.back.models.Product;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.List;
+
+/**
+ * Cache de productos que guarda y entrega copias: los modelos Product son mutables y el mismo objeto
+ * cacheado se devolvería a todos los llamadores. Se copia al guardar (el valor que devuelve el método
+ * @Cacheable queda en manos del llamador) y al leer.
+ */
+public class CopyOnReadCaffeineCache extends CaffeineCache {
+
+    public CopyOnReadCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        return super.toStoreValue(copy(userValue));
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return copy(super.fromStoreValue(storeValue));
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Product product) {
+            return product.copy();
+        }
+        if (value instanceof Page<?> page) {
+            return new PageImpl<>(copyAll(page.getContent()), page.getPageable(), page.getTotalElements());
+        }
+        if (value instanceof List<?> list) {
+            return copyAll(list);
+        }
+        return value;
+    }
+
+    private static List<Object> copyAll(List<?> values) {
+        return values.stream().map(CopyOnReadCaffeineCache::copy).toList();
+    }
+}
@@ -2,6 +2,7 @@ package org.example.back.configs;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.back.mappers.CatalogMapper;
 import org.modelmapper.Conditions;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
@@ -23,6 +24,11 @@ public class MappersConfig {
         return mapper;
     }
 
+    @Bean
+    public CatalogMapper catalogMapper() {
+        return new CatalogMapper();
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -0,0 +1,29 @@
+package org.example.back.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.example.back.dtos.CacheStatsDTO;
+import org.example.back.services.CacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class AdminCacheController {
+
+    private final CacheService cacheService;
+
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Obtener estadísticas de caché", description = "Obtiene aciertos, fallos y desalojos de cada caché en memoria.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CacheStatsDTO.class)))
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheService.getCacheStatistics());
+    }
+}
@@ -5,15 +5,21 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
+import org.example.back.dtos.request.BulkAdjustmentRequest;
+import org.example.back.dtos.response.BulkAdjustmentResponse;
+import org.example.back.dtos.response.BulkImportResponse;
 import org.example.back.models.Product;
+import org.example.back.services.ProductImportService;
 import org.example.back.services.ProductService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -23,6 +29,7 @@ import java.util.List;
 public class AdminProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @PostMapping("/products/create")
     @Operation(summary = "Crear un producto", description = "Crea un nuevo producto.")
@@ -33,6 +40,33 @@ public class AdminProductController {
         return new ResponseEntity<>(product, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/products/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Importar productos en lote", description = "Crea o actualiza (si la fila trae id) una lista de productos y devuelve los errores por fila y el rendimiento de la importación.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkImportResponse.class)))
+    @ApiResponse(responseCode = "400", description = "Datos inválidos", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkImportResponse.class)))
+    public ResponseEntity<BulkImportResponse> importProducts(@RequestBody List<Product> products) {
+        BulkImportResponse response = productImportService.importProducts(products);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/products/bulk", consumes = "text/csv")
+    @Operation(summary = "Importar productos desde CSV", description = "Crea o actualiza productos leyendo un CSV en streaming. Columnas: id (opcional), name, description, price, stock, brandId, categoryId, imageUrls (opcional, separadas por |).")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkImportResponse.class)))
+    @ApiResponse(responseCode = "400", description = "Datos inválidos", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkImportResponse.class)))
+    public ResponseEntity<BulkImportResponse> importProductsCsv(InputStream csv) {
+        BulkImportResponse response = productImportService.importProductsCsv(csv);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PutMapping("/products/bulk-adjust")
+    @Operation(summary = "Ajustar precios y stock en lote", description = "Aplica un cambio de precio (porcentual o absoluto) y/o una corrección de stock a los productos que cumplen el filtro (marca, categoría, lista de ids), registrando los movimientos de stock.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkAdjustmentResponse.class)))
+    @ApiResponse(responseCode = "400", description = "Datos inválidos", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkAdjustmentResponse.class)))
+    public ResponseEntity<BulkAdjustmentResponse> adjustProducts(@RequestBody BulkAdjustmentRequest request) {
+        BulkAdjustmentResponse response = productService.adjustProducts(request);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @PutMapping("/products/update/{productId}")
     @Operation(summary = "Actualizar un producto", description = "Actualiza un producto existente.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
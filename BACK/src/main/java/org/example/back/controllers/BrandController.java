@@ -1,11 +1,16 @@
 package org.example.back.controllers;
 
+import org.example.back.dtos.BrandTreeDTO;
 import org.example.back.models.Brand;
 import org.example.back.models.Category;
 import org.example.back.services.BrandService;
+import org.example.back.services.BrandTreeService;
+import org.example.back.services.CatalogVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -21,19 +26,48 @@ public class BrandController {
     @Autowired
     private BrandService brandService;
 
+    @Autowired
+    private BrandTreeService brandTreeService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private CacheControl catalogCacheControl;
+
     @GetMapping("/active")
     @Operation(summary = "Obtener todas las marcas activas", description = "Obtiene todas las marcas activas.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Brand.class)))
-    public ResponseEntity<List<Brand>> getAllBrandsActive() {
+    public ResponseEntity<List<Brand>> getAllBrandsActive(WebRequest request) {
+        String eTag = catalogVersionService.getBrandsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<Brand> brands = brandService.getAllBrandsActive();
-        return ResponseEntity.ok(brands);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(brands);
+    }
+
+    @GetMapping("/tree")
+    @Operation(summary = "Obtener el árbol de marcas y categorías", description = "Obtiene todas las marcas activas con sus categorías activas y la cantidad de productos activos de cada una.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BrandTreeDTO.class)))
+    public ResponseEntity<List<BrandTreeDTO>> getBrandTree(WebRequest request) {
+        String eTag = catalogVersionService.getBrandTreeETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        List<BrandTreeDTO> tree = brandTreeService.getBrandTree();
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(tree);
     }
 
     @GetMapping("/{brandId}/categoriesActive")
     @Operation(summary = "Obtener todas las categorías activas por marca", description = "Obtiene todas las categorías activas por marca.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Category.class)))
-    public ResponseEntity<List<Category>> getAllCategoriesByBrandActive(@PathVariable Long brandId) {
+    public ResponseEntity<List<Category>> getAllCategoriesByBrandActive(@PathVariable Long brandId, WebRequest request) {
+        String eTag = catalogVersionService.getBrandsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<Category> categories = brandService.getAllCategoriesByBrandActive(brandId);
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(categories);
     }
 }
@@ -5,9 +5,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.example.back.dtos.CartDTO;
 import org.example.back.dtos.CheckoutDTO;
+import org.example.back.dtos.request.CartItemsRequest;
 import org.example.back.dtos.request.UpdateShippingRequest;
+import org.example.back.dtos.response.ReorderResponse;
 import org.example.back.services.CartService;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -43,6 +44,15 @@ public class CartController {
         return ResponseEntity.ok(cartService.updateCartItem(productId, quantity));
     }
 
+    @PostMapping("/items")
+    @Operation(summary = "Modificar varios productos del carrito",
+            description = "Aplica una lista de operaciones ADD/SET/REMOVE en una sola transacción; si alguna falla no se aplica ninguna")
+    @ApiResponse(responseCode = "200", description = "Carrito actualizado exitosamente")
+    @ApiResponse(responseCode = "401", description = "No autorizado")
+    public ResponseEntity<CartDTO> applyItemOperations(@RequestBody CartItemsRequest request) {
+        return ResponseEntity.ok(cartService.applyItemOperations(request));
+    }
+
     @DeleteMapping("/item/{productId}")
     @Operation(summary = "Eliminar producto del carrito", description = "Elimina un producto del carrito del usuario autenticado")
     @ApiResponse(responseCode = "204", description = "Producto eliminado exitosamente")
@@ -87,16 +97,12 @@ public class CartController {
     @PostMapping("/reorder/{orderId}")
     @Operation(summary = "Reordenar desde una orden previa",
             description = "Permite reordenar los productos de una orden previa agregándolos al carrito actual")
-    @ApiResponse(responseCode = "200", description = "Productos reordenados exitosamente")
+    @ApiResponse(responseCode = "200", description = "Productos reordenados exitosamente; las cantidades sin stock suficiente se ajustan al disponible")
     @ApiResponse(responseCode = "401", description = "No autorizado")
-    public ResponseEntity<CartDTO> reorderFromOrder(@PathVariable Long orderId) {
+    public ResponseEntity<ReorderResponse> reorderFromOrder(@PathVariable Long orderId) {
         try{
             return ResponseEntity.ok(cartService.reorderFromOrder(orderId));
         } catch (RuntimeException e) {
-            if (e.getMessage().contains("Stock insuficiente")) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                        .body(null);
-            }
             return ResponseEntity.badRequest().build();
         }
     }
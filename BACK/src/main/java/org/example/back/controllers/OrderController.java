@@ -52,7 +52,8 @@ public class OrderController {
 
     @GetMapping("/admin/orders")
     @Operation(summary = "Get all orders (Admin only)",
-            description = "Retrieves all orders in the system. Requires ADMINISTRATOR role.")
+            description = "Retrieves all orders in the system. Requires ADMINISTRATOR role. " +
+                    "With includeTotal=false the total count is skipped and only hasNext is returned.")
     @ApiResponse(responseCode = "200", description = "Orders retrieved successfully")
     @ApiResponse(responseCode = "401", description = "Unauthorized")
     @PreAuthorize("hasRole('ADMINISTRATOR')")
@@ -64,7 +65,8 @@ public class OrderController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(required  = false) String searchQuery,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "true") boolean includeTotal
     ) {
         PageResponse<OrderResponse> response = orderService.getAllOrders(
                 status,
@@ -72,7 +74,8 @@ public class OrderController {
                 endDate,
                 searchQuery,
                 page,
-                size
+                size,
+                includeTotal
         );
         return ResponseEntity.ok(response);
     }
@@ -2,16 +2,23 @@ package org.example.back.controllers;
 
 import java.util.List;
 
+import org.example.back.dtos.ProductCardDTO;
+import org.example.back.dtos.response.CursorPageResponse;
 import org.example.back.models.Product;
+import org.example.back.services.CatalogVersionService;
+import org.example.back.services.ProductSearchService;
 import org.example.back.services.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -26,6 +33,15 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private CacheControl catalogCacheControl;
+
    /*  @GetMapping("/allProductsActive")
     @Operation(summary = "Obtener todos los productos activos", description = "Obtiene todos los productos activos.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
@@ -37,33 +53,114 @@ public class ProductController {
     @GetMapping("/allProductsActive")
     @Operation(summary = "Obtener todos los productos activos", description = "Obtiene todos los productos activos.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
-    public ResponseEntity<Page<Product>> getAllProductsActive(@RequestParam(defaultValue = "0") Integer page, @RequestParam(defaultValue = "12") Integer size) {
+    public ResponseEntity<Page<Product>> getAllProductsActive(@RequestParam(defaultValue = "0") Integer page, @RequestParam(defaultValue = "12") Integer size, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> products = productService.getAllProductsActive(pageable);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(products);
+    }
+
+    @GetMapping("/allProductsActive/scroll")
+    @Operation(summary = "Obtener productos activos por cursor", description = "Obtiene productos activos para scroll infinito usando un cursor opaco en lugar de número de página.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageResponse.class)))
+    public ResponseEntity<CursorPageResponse<Product>> getAllProductsActiveByCursor(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "12") Integer size, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        CursorPageResponse<Product> products = productService.getAllProductsActive(cursor, size);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(products);
+    }
+
+    @GetMapping("/cards")
+    @Operation(summary = "Obtener tarjetas de productos activos", description = "Obtiene los datos mínimos para las tarjetas del listado de productos activos.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductCardDTO.class)))
+    public ResponseEntity<Page<ProductCardDTO>> getActiveProductCards(@RequestParam(defaultValue = "0") Integer page, @RequestParam(defaultValue = "12") Integer size, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        Page<ProductCardDTO> cards = productService.getActiveProductCards(pageable);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(cards);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Buscar productos", description = "Busca productos activos por nombre, descripción, marca o categoría, tolerando prefijos y errores de tipeo.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q, @RequestParam(defaultValue = "20") Integer limit, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        List<Product> products = productSearchService.search(q, limit);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(products);
     }
 
     @GetMapping("/allProductsByCategory/{categoryId}")
     @Operation(summary = "Obtener todos los productos por categoría", description = "Obtiene todos los productos por categoría.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
-    public ResponseEntity<List<Product>> getAllProductsByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<List<Product>> getAllProductsByCategory(@PathVariable Long categoryId, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<Product> products = productService.getAllProductsByCategory(categoryId);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(products);
+    }
+
+    @GetMapping("/allProductsByCategory/{categoryId}/paged")
+    @Operation(summary = "Obtener productos activos por categoría paginados", description = "Obtiene los productos activos de una categoría paginados y ordenados por id, name o price.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
+    public ResponseEntity<Page<Product>> getAllProductsByCategoryPaged(@PathVariable Long categoryId, @RequestParam(defaultValue = "0") Integer page, @RequestParam(defaultValue = "12") Integer size,
+                                                                       @RequestParam(defaultValue = "id") String sortBy, @RequestParam(defaultValue = "asc") String direction, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(direction), sortBy));
+        Page<Product> products = productService.getAllProductsByCategory(categoryId, pageable);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(products);
     }
 
     @GetMapping("/allProductsByBrand/{brandId}")
     @Operation(summary = "Obtener todos los productos por marca", description = "Obtiene todos los productos por marca.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
-    public ResponseEntity<List<Product>> getAllProductsByBrand(@PathVariable Long brandId) {
+    public ResponseEntity<List<Product>> getAllProductsByBrand(@PathVariable Long brandId, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<Product> products = productService.getAllProductsByBrand(brandId);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(products);
+    }
+
+    @GetMapping("/allProductsByBrand/{brandId}/paged")
+    @Operation(summary = "Obtener productos activos por marca paginados", description = "Obtiene los productos activos de una marca paginados y ordenados por id, name o price.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
+    public ResponseEntity<Page<Product>> getAllProductsByBrandPaged(@PathVariable Long brandId, @RequestParam(defaultValue = "0") Integer page, @RequestParam(defaultValue = "12") Integer size,
+                                                                    @RequestParam(defaultValue = "id") String sortBy, @RequestParam(defaultValue = "asc") String direction, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(direction), sortBy));
+        Page<Product> products = productService.getAllProductsByBrand(brandId, pageable);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(products);
     }
 
     @GetMapping("/getProductById/{productId}")
     @Operation(summary = "Obtener un producto por ID", description = "Obtiene un producto por ID.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Product.class)))
-    public ResponseEntity<Product> getProductById(@PathVariable Long productId) {
+    public ResponseEntity<Product> getProductById(@PathVariable Long productId, WebRequest request) {
+        String eTag = catalogVersionService.getProductsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         Product product = productService.getProductById(productId);
-        return new ResponseEntity<>(product, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl).body(product);
     }
 }
@@ -367,4 +367,34 @@ public class ReportController {
 
         return ResponseEntity.ok(reportService.getTopProductByPeriod(period, startDate, endDate));
     }
+
+    @GetMapping("/reports/abandoned-carts")
+    @Operation(
+            summary = "Get abandoned carts report",
+            description = "Get value, units and products left in carts purged after the abandonment period"
+    )
+    @ApiResponse(responseCode = "200", description = "Successful operation")
+    @ApiResponse(responseCode = "400", description = "Invalid limit parameter")
+    @ApiResponse(responseCode = "403", description = "Unauthorized")
+    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    public ResponseEntity<AbandonedCartReportDTO> getAbandonedCartReport(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (startDate == null) {
+            startDate = LocalDateTime.now().minusMonths(3);
+        }
+        if (endDate == null) {
+            endDate = LocalDateTime.now();
+        }
+
+        try {
+            return ResponseEntity.ok(reportService.getAbandonedCartReport(startDate, endDate, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -4,9 +4,12 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.example.back.dtos.ShippingDTO;
+import org.example.back.services.CatalogVersionService;
 import org.example.back.services.ShippingService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -18,13 +21,20 @@ import java.util.List;
 public class ShippingController {
 
     private final ShippingService shippingService;
+    private final CatalogVersionService catalogVersionService;
+    private final CacheControl catalogCacheControl;
 
     @GetMapping("/methods")
     @Operation(summary = "Get all active shipping methods",
                description = "Retrieve a list of all active shipping methods available.")
     @ApiResponse(responseCode = "200", description = "Successful retrieval of shipping methods")
-    public ResponseEntity<List<ShippingDTO>> getShippingMethods() {
-        return ResponseEntity.ok(shippingService.getAllActiveShippingMethods());
+    public ResponseEntity<List<ShippingDTO>> getShippingMethods(WebRequest request) {
+        String eTag = catalogVersionService.getShippingETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(catalogCacheControl)
+                .body(shippingService.getAllActiveShippingMethods());
     }
 
     @GetMapping("/{id}")
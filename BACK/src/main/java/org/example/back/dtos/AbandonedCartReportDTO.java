@@ -0,0 +1,41 @@
+package org.example.back.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AbandonedCartReportDTO {
+    private Long totalCarts;
+    private Long totalUnits;
+    private BigDecimal totalValue;
+    private List<DailySummary> byDay;
+    private List<ProductSummary> topProducts;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailySummary {
+        private LocalDate date;
+        private Long carts;
+        private Long units;
+        private BigDecimal value;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSummary {
+        private Long productId;
+        private String productName;
+        private Long carts;
+        private Long units;
+        private BigDecimal value;
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.back.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BrandTreeDTO {
+    private Long id;
+    private String name;
+    private Long productCount;
+    private List<CategoryTreeDTO> categories;
+}
@@ -0,0 +1,16 @@
+package org.example.back.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryTreeDTO {
+    private Long id;
+    private String name;
+    private Long productCount;
+}
@@ -0,0 +1,25 @@
+package org.example.back.dtos.request;
+
+import lombok.*;
+import org.example.back.enums.PriceAdjustmentType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkAdjustmentRequest {
+    // Filtro: se combinan con AND, al menos uno es obligatorio
+    private Long brandId;
+    private Long categoryId;
+    private List<Long> productIds;
+
+    // Cambio de precio: porcentaje (10 = +10%, -15 = -15%) o monto a sumar/restar
+    private PriceAdjustmentType priceAdjustmentType;
+    private BigDecimal priceChange;
+
+    // Corrección de stock: positiva genera un ingreso, negativa un egreso
+    private Integer stockChange;
+}
@@ -0,0 +1,15 @@
+package org.example.back.dtos.request;
+
+import lombok.*;
+import org.example.back.enums.CartOperationType;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartItemOperationRequest {
+    private CartOperationType type;
+    private Long productId;
+    // ADD: cantidad a sumar (1 si se omite); SET: cantidad final (0 elimina); REMOVE: se ignora
+    private Integer quantity;
+}
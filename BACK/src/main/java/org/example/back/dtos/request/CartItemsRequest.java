@@ -0,0 +1,14 @@
+package org.example.back.dtos.request;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartItemsRequest {
+    // Se aplican en orden; si alguna falla no se aplica ninguna
+    private List<CartItemOperationRequest> operations;
+}
@@ -0,0 +1,15 @@
+package org.example.back.dtos.response;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAdjustmentResponse {
+    private int matchedProducts;
+    private int priceUpdated;
+    private int priceSkipped;
+    private int stockUpdated;
+    private int stockSkipped;
+}
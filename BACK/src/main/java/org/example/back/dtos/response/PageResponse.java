@@ -12,8 +12,10 @@ public class PageResponse<T> {
     private List<T> content;
     private int pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    // Nulos cuando el listado se pidió sin total (includeTotal=false)
+    private Long totalElements;
+    private Integer totalPages;
+    private boolean hasNext;
 
     public static <T> PageResponse<T> from(Page<T> page) {
         return PageResponse.<T>builder()
@@ -22,6 +24,7 @@ public class PageResponse<T> {
                 .pageSize(page.getSize())
                 .totalElements(page.getTotalElements())
                 .totalPages(page.getTotalPages())
+                .hasNext(page.hasNext())
                 .build();
     }
 }
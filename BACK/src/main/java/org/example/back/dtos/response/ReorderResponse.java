@@ -0,0 +1,27 @@
+package org.example.back.dtos.response;
+
+import lombok.*;
+import org.example.back.dtos.CartDTO;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderResponse {
+    private CartDTO cart;
+    // Una línea por producto de la orden; capped indica que se agregó menos de lo pedido por falta de stock
+    private List<ReorderLine> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReorderLine {
+        private Long productId;
+        private String productName;
+        private int requestedQuantity;
+        private int addedQuantity;
+        private boolean capped;
+    }
+}
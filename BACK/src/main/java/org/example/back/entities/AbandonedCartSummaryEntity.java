@@ -0,0 +1,43 @@
+package org.example.back.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Métricas acumuladas de los carritos abandonados que se purgan, por día de última actividad.
+ * La fila con product null guarda el total del día (carritos, unidades y valor); el resto, el detalle por producto.
+ */
+@Entity
+@Table(name = "abandoned_cart_summary", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_abandoned_cart_summary_date_product", columnNames = {"summary_date", "product_id"})
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AbandonedCartSummaryEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "abandoned_cart_summary_seq")
+    @SequenceGenerator(name = "abandoned_cart_summary_seq", sequenceName = "abandoned_cart_summary_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "summary_date", nullable = false)
+    private LocalDate summaryDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private ProductEntity product;
+
+    @Column(name = "cart_count", nullable = false)
+    private Long cartCount;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(name = "total_value", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalValue;
+}
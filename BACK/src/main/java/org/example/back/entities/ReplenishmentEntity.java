@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class ReplenishmentEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "replenishments_seq")
+    @SequenceGenerator(name = "replenishments_seq", sequenceName = "replenishments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
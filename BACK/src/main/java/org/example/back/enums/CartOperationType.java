@@ -0,0 +1,7 @@
+package org.example.back.enums;
+
+public enum CartOperationType {
+    ADD,
+    SET,
+    REMOVE
+}
@@ -0,0 +1,6 @@
+package org.example.back.enums;
+
+public enum PriceAdjustmentType {
+    PERCENTAGE,
+    ABSOLUTE
+}
@@ -0,0 +1,27 @@
+package org.example.back.events;
+
+import lombok.Getter;
+
+/**
+ * Evento publicado cuando se crea, modifica, desactiva o reactiva una marca o una de sus categorías.
+ * categoryId es null cuando el cambio afecta a la marca en sí.
+ */
+@Getter
+public class BrandChangedEvent {
+
+    private final Long brandId;
+    private final Long categoryId;
+
+    private BrandChangedEvent(Long brandId, Long categoryId) {
+        this.brandId = brandId;
+        this.categoryId = categoryId;
+    }
+
+    public static BrandChangedEvent brand(Long brandId) {
+        return new BrandChangedEvent(brandId, null);
+    }
+
+    public static BrandChangedEvent category(Long brandId, Long categoryId) {
+        return new BrandChangedEvent(brandId, categoryId);
+    }
+}
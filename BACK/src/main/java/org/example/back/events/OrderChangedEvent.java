@@ -0,0 +1,14 @@
+package org.example.back.events;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evento publicado cuando se crea una orden o cambia su estado. userId es el cliente de la orden.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderChangedEvent {
+
+    private final Long userId;
+}
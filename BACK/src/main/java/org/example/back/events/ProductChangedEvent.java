@@ -0,0 +1,37 @@
+package org.example.back.events;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Evento publicado cuando cambian uno o más productos del catálogo.
+ * listingChanged indica si el cambio altera qué productos aparecen en los listados o en qué orden
+ * (alta, baja, reactivación, cambio de marca/categoría, de nombre o de precio) o solo sus datos (stock, descripción, etc).
+ */
+@Getter
+public class ProductChangedEvent {
+
+    private final Set<Long> productIds;
+    private final Set<Long> brandIds;
+    private final Set<Long> categoryIds;
+    private final boolean listingChanged;
+
+    private ProductChangedEvent(Collection<Long> productIds, Collection<Long> brandIds,
+                                Collection<Long> categoryIds, boolean listingChanged) {
+        this.productIds = Set.copyOf(productIds);
+        this.brandIds = Set.copyOf(brandIds);
+        this.categoryIds = Set.copyOf(categoryIds);
+        this.listingChanged = listingChanged;
+    }
+
+    public static ProductChangedEvent listingChanged(Collection<Long> productIds, Collection<Long> brandIds,
+                                                     Collection<Long> categoryIds) {
+        return new ProductChangedEvent(productIds, brandIds, categoryIds, true);
+    }
+
+    public static ProductChangedEvent dataChanged(Collection<Long> productIds) {
+        return new ProductChangedEvent(productIds, Set.of(), Set.of(), false);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.back.initializer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Verifica al arrancar que existan los índices de los que dependen las consultas más usadas.
+ * El esquema lo crean las migraciones de Flyway (db/migration); si falta alguno de estos índices
+ * la aplicación no arranca, en lugar de degradarse en silencio a recorridos completos de tabla.
+ * Un índice cuenta si sus primeras columnas son las esperadas (sirve también el de una restricción UNIQUE).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SchemaIndexVerifier implements CommandLineRunner {
+
+    // tabla(columnas iniciales del índice)
+    private static final List<String> EXPECTED_INDEXES = List.of(
+            "orders(user_id,date)",
+            "orders(status,date)",
+            "orders(date)",
+            "orders(payment_id)",
+            "orders(mercadopago_order_id)",
+            "order_details(order_id)",
+            "order_details(product_id)",
+            "replenishments(product_id,date)",
+            "shipments(order_id)",
+            "shipments(tracking_code)",
+            "cart(user_id)",
+            "cart_item(cart_id)",
+            "users(email)",
+            "products(category_id,active)",
+            "products(brand_id,active)",
+            "stock_reservations(user_id)",
+            "stock_reservations(product_id,expires_at)"
+    );
+
+    // Columnas de cada índice válido del esquema actual en orden; los índices sobre expresiones no se listan.
+    // Un CREATE INDEX CONCURRENTLY interrumpido deja el índice INVALID: el planner no lo usa y cuenta como faltante
+    private static final String INDEX_COLUMNS_QUERY = """
+            SELECT t.relname || '(' || string_agg(a.attname, ',' ORDER BY k.ord) || ')'
+            FROM pg_index ix
+            JOIN pg_class t ON t.oid = ix.indrelid
+            JOIN pg_namespace n ON n.oid = t.relnamespace
+            CROSS JOIN LATERAL unnest(ix.indkey) WITH ORDINALITY AS k(attnum, ord)
+            JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = k.attnum
+            WHERE n.nspname = current_schema() AND ix.indisvalid
+            GROUP BY t.relname, ix.indexrelid
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${schema.index-check.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        Set<String> indexes = new HashSet<>(jdbcTemplate.queryForList(INDEX_COLUMNS_QUERY, String.class));
+        List<String> missing = EXPECTED_INDEXES.stream()
+                .filter(expected -> indexes.stream().noneMatch(index -> covers(index, expected)))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing database indexes " + missing
+                    + ". Check that the Flyway migrations in db/migration were applied");
+        }
+        log.info("Verified {} database indexes", EXPECTED_INDEXES.size());
+    }
+
+    // orders(user_id,date,status) cubre orders(user_id,date); orders(user_id_x) no cubre orders(user_id)
+    private boolean covers(String index, String expected) {
+        String prefix = expected.substring(0, expected.length() - 1);
+        return index.equals(expected) || index.startsWith(prefix + ",");
+    }
+}
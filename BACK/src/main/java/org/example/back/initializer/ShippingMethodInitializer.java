@@ -3,6 +3,7 @@ package org.example.back.initializer;
 import lombok.RequiredArgsConstructor;
 import org.example.back.entities.ShippingEntity;
 import org.example.back.repositories.ShippingRepository;
+import org.example.back.services.ShippingService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -13,6 +14,7 @@ import java.util.Arrays;
 @RequiredArgsConstructor
 public class ShippingMethodInitializer implements CommandLineRunner {
     private final ShippingRepository shippingRepository;
+    private final ShippingService shippingService;
 
     @Override
     public void run(String... args) {
@@ -71,5 +73,7 @@ public class ShippingMethodInitializer implements CommandLineRunner {
 
             System.out.println("✓ Shipping methods initialized successfully");
         }
+
+        shippingService.refreshShippingMethods();
     }
 }
\ No newline at end of file
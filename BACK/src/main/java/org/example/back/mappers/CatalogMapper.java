@@ -0,0 +1,49 @@
+package org.example.back.mappers;
+
+import org.example.back.entities.BrandEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.models.Brand;
+import org.example.back.models.Category;
+import org.example.back.models.Product;
+
+import java.util.ArrayList;
+
+/**
+ * Conversores explícitos de entidades del catálogo a modelos.
+ * Reemplazan a ModelMapper en los listados, donde la resolución por reflexión se repite por cada fila.
+ */
+public class CatalogMapper {
+
+    public Product toProduct(ProductEntity entity) {
+        return Product.builder()
+                .id(entity.getId())
+                .name(entity.getName())
+                .description(entity.getDescription())
+                .price(entity.getPrice())
+                // Se copia la colección para no exponer la colección administrada por Hibernate
+                .imageUrls(entity.getImageUrls() != null ? new ArrayList<>(entity.getImageUrls()) : null)
+                .stock(entity.getStock())
+                .active(entity.isActive())
+                .brandId(entity.getBrand() != null ? entity.getBrand().getId() : null)
+                .categoryId(entity.getCategory() != null ? entity.getCategory().getId() : null)
+                .build();
+    }
+
+    public Brand toBrand(BrandEntity entity) {
+        return Brand.builder()
+                .id(entity.getId())
+                .name(entity.getName())
+                .active(entity.isActive())
+                .build();
+    }
+
+    public Category toCategory(CategoryEntity entity) {
+        return Category.builder()
+                .id(entity.getId())
+                .name(entity.getName())
+                .active(entity.isActive())
+                .brandId(entity.getBrand() != null ? entity.getBrand().getId() : null)
+                .build();
+    }
+}
@@ -3,6 +3,7 @@ package org.example.back.models;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 @Setter
@@ -20,4 +21,11 @@ public class Product {
     private boolean active;
     private Long brandId;
     private Long categoryId;
+
+    // Copia independiente, incluida la lista de imágenes
+    public Product copy() {
+        return new Product(id, name, description, price,
+                imageUrls != null ? new ArrayList<>(imageUrls) : null,
+                stock, active, brandId, categoryId);
+    }
 }
@@ -0,0 +1,18 @@
+package org.example.back.repositories;
+
+import org.example.back.entities.AbandonedCartSummaryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AbandonedCartSummaryRepository extends JpaRepository<AbandonedCartSummaryEntity, Long> {
+
+    @Query("SELECT s FROM AbandonedCartSummaryEntity s LEFT JOIN FETCH s.product WHERE s.summaryDate IN :dates")
+    List<AbandonedCartSummaryEntity> findBySummaryDateIn(@Param("dates") Collection<LocalDate> dates);
+}
@@ -1,12 +1,102 @@
 package org.example.back.repositories;
 
 import org.example.back.entities.CartEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<CartEntity, Long> {
     Optional<CartEntity> findByUserId(Long userId);
+
+    // Carrito con ítems, productos (marca, categoría, proveedor), usuario y envío en una sola consulta.
+    // Las imágenes no se pueden traer en el mismo JOIN FETCH (dos colecciones List) y se cargan en un
+    // único batch gracias al @BatchSize de ProductEntity.imageUrls
+    @Query("""
+        SELECT DISTINCT c FROM CartEntity c
+        JOIN FETCH c.user
+        LEFT JOIN FETCH c.selectedShipping
+        LEFT JOIN FETCH c.items i
+        LEFT JOIN FETCH i.product p
+        LEFT JOIN FETCH p.brand
+        LEFT JOIN FETCH p.category
+        LEFT JOIN FETCH p.provider
+        WHERE c.user.id = :userId
+    """)
+    Optional<CartEntity> findWithItemsByUserId(@Param("userId") Long userId);
+
+    // Carritos vacíos sin cambios desde cutoff, recorridos por id (keyset) para que los que no se borran no se repitan
+    @Query("""
+        SELECT c.id FROM CartEntity c
+        WHERE c.items IS EMPTY
+        AND COALESCE(c.updatedAt, c.createdAt) < :cutoff
+        AND c.id > :afterId
+        ORDER BY c.id
+    """)
+    List<Long> findEmptyCartIds(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Se vuelve a comprobar que estén vacíos por si el usuario agregó un producto entre la consulta y el borrado
+    @Modifying
+    @Query("DELETE FROM CartEntity c WHERE c.id IN :ids AND c.items IS EMPTY")
+    int deleteEmptyCarts(@Param("ids") List<Long> ids);
+
+    // Carritos con productos sin actividad desde cutoff, recorridos por id (keyset). Se excluyen los de usuarios
+    // con una reserva de stock vigente: iniciaron el pago y la orden se crea con el carrito cuando llega el webhook
+    @Query("""
+        SELECT c.id FROM CartEntity c
+        WHERE c.items IS NOT EMPTY
+        AND COALESCE(c.updatedAt, c.createdAt) < :cutoff
+        AND NOT EXISTS (SELECT r FROM StockReservationEntity r WHERE r.user = c.user AND r.expiresAt > :now)
+        AND c.id > :afterId
+        ORDER BY c.id
+    """)
+    List<Long> findAbandonedCartIds(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now,
+                                    @Param("afterId") Long afterId, Pageable pageable);
+
+    // Bloquea los carritos del lote que siguen abandonados (mismo criterio que findAbandonedCartIds).
+    // FOR UPDATE también frena la inserción de ítems (chequeo de FK) e initiatePayment hasta que termine la purga
+    @Query(value = """
+        SELECT c.id FROM cart c
+        WHERE c.id IN (:ids)
+        AND COALESCE(c.updated_at, c.created_at) < :cutoff
+        AND NOT EXISTS (SELECT 1 FROM stock_reservations r WHERE r.user_id = c.user_id AND r.expires_at > :now)
+        ORDER BY c.id
+        FOR UPDATE
+    """, nativeQuery = true)
+    List<Long> lockAbandonedCarts(@Param("ids") List<Long> ids, @Param("cutoff") LocalDateTime cutoff,
+                                  @Param("now") LocalDateTime now);
+
+    // Filas [cartId, lastActivity, productId, quantity, price] de los carritos del lote que siguen abandonados
+    @Query("""
+        SELECT c.id, COALESCE(c.updatedAt, c.createdAt), p.id, i.quantity, p.price
+        FROM CartItemEntity i
+        JOIN i.cart c
+        JOIN i.product p
+        WHERE c.id IN :ids
+        AND COALESCE(c.updatedAt, c.createdAt) < :cutoff
+    """)
+    List<Object[]> findAbandonedCartLines(@Param("ids") List<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    // Los DELETE repiten el corte por fecha: un carrito modificado después de leer sus líneas no se borra
+    @Modifying
+    @Query("""
+        DELETE FROM CartItemEntity i
+        WHERE i.cart.id IN (
+            SELECT c.id FROM CartEntity c
+            WHERE c.id IN :ids
+            AND COALESCE(c.updatedAt, c.createdAt) < :cutoff)
+    """)
+    int deleteAbandonedItems(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM CartEntity c WHERE c.id IN :ids AND COALESCE(c.updatedAt, c.createdAt) < :cutoff")
+    int deleteAbandonedCarts(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
 }
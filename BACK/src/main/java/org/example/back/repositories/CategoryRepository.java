@@ -17,4 +17,6 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>
     List<CategoryEntity> findByBrandAndActiveTrue(BrandEntity brandEntity);
 
     List<CategoryEntity> findByBrand(BrandEntity brandEntity);
+
+    List<CategoryEntity> findByActiveTrueAndBrandActiveTrue();
 }
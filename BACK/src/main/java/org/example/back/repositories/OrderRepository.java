@@ -1,16 +1,17 @@
 package org.example.back.repositories;
 
+import org.example.back.dtos.UserOrderStatisticsDTO;
 import org.example.back.entities.OrderEntity;
-import org.example.back.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,94 +20,149 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     List<OrderEntity> findByCustomerIdOrderByDateDesc(Long customerId);
     List<OrderEntity> findAllByOrderByDateDesc();
 
-    // Buscar órdenes de un usuario
-    @Query(value = """
-    SELECT o.* FROM orders o 
-    LEFT JOIN users u ON o.user_id = u.id
-    WHERE 
-    o.user_id = :userId
-    AND (CAST(:status AS VARCHAR) IS NULL OR o.status = CAST(:status AS VARCHAR))
-    AND (CAST(:startDate AS TIMESTAMP) IS NULL OR o.date >= CAST(:startDate AS TIMESTAMP))
-    AND (CAST(:endDate AS TIMESTAMP) IS NULL OR o.date <= CAST(:endDate AS TIMESTAMP))
-    AND (
-        CAST(:searchQuery AS VARCHAR) IS NULL 
-        OR CAST(o.id AS TEXT) LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR o.payment_id LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR o.mercadopago_order_id LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR LOWER(o.shipping_address) LIKE LOWER(CONCAT('%', CAST(:searchQuery AS VARCHAR), '%'))
-        OR LOWER(o.shipping_city) LIKE LOWER(CONCAT('%', CAST(:searchQuery AS VARCHAR), '%'))
-        OR o.shipping_postal_code LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-    )
-    ORDER BY o.date DESC
-    """,
-            countQuery = """
-    SELECT COUNT(o.id) FROM orders o 
-    LEFT JOIN users u ON o.user_id = u.id
-    WHERE 
-    o.user_id = :userId
-    AND (CAST(:status AS VARCHAR) IS NULL OR o.status = CAST(:status AS VARCHAR))
-    AND (CAST(:startDate AS TIMESTAMP) IS NULL OR o.date >= CAST(:startDate AS TIMESTAMP))
-    AND (CAST(:endDate AS TIMESTAMP) IS NULL OR o.date <= CAST(:endDate AS TIMESTAMP))
-    AND (
-        CAST(:searchQuery AS VARCHAR) IS NULL 
-        OR CAST(o.id AS TEXT) LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR o.payment_id LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR o.mercadopago_order_id LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR LOWER(o.shipping_address) LIKE LOWER(CONCAT('%', CAST(:searchQuery AS VARCHAR), '%'))
-        OR LOWER(o.shipping_city) LIKE LOWER(CONCAT('%', CAST(:searchQuery AS VARCHAR), '%'))
-        OR o.shipping_postal_code LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-    )
-    """,
+    // Filtros comunes de los listados de órdenes (estado y rango de fechas)
+    String ORDER_FILTERS = """
+        (CAST(:status AS VARCHAR) IS NULL OR o.status = CAST(:status AS VARCHAR))
+        AND (CAST(:startDate AS TIMESTAMP) IS NULL OR o.date >= CAST(:startDate AS TIMESTAMP))
+        AND (CAST(:endDate AS TIMESTAMP) IS NULL OR o.date <= CAST(:endDate AS TIMESTAMP))
+    """;
+
+    // Búsquedas de los listados: solo los ids de la página, las órdenes se cargan con findWithDetailsByIdIn.
+    // Los números se buscan por igualdad (id, pagos de MercadoPago, documento, código postal) y el texto libre
+    // con ILIKE sobre columnas con índice trigram (ver db/migration/V3__order_search_indexes.sql)
+
+    // Órdenes de un usuario
+    @Query(value = "SELECT o.id FROM orders o WHERE o.user_id = :userId AND " + ORDER_FILTERS
+            + " ORDER BY o.date DESC",
+            countQuery = "SELECT COUNT(o.id) FROM orders o WHERE o.user_id = :userId AND " + ORDER_FILTERS,
+            nativeQuery = true)
+    Page<Long> findUserOrderIdsByFilters(
+            @Param("userId") Long userId,
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable);
+
+    // Un cliente que busca dígitos también puede estar buscando la altura de la calle: sus órdenes son
+    // pocas, así que se suma la coincidencia parcial en dirección y ciudad
+    String USER_NUMBER_SEARCH = """
+        AND (o.id = :orderId OR o.payment_id = :term OR o.mercadopago_order_id = :term
+             OR o.shipping_postal_code = :term
+             OR o.shipping_address ILIKE :pattern OR o.shipping_city ILIKE :pattern)
+    """;
+
+    @Query(value = "SELECT o.id FROM orders o WHERE o.user_id = :userId AND " + ORDER_FILTERS + USER_NUMBER_SEARCH
+            + " ORDER BY o.date DESC",
+            countQuery = "SELECT COUNT(o.id) FROM orders o WHERE o.user_id = :userId AND " + ORDER_FILTERS
+                    + USER_NUMBER_SEARCH,
             nativeQuery = true)
-    Page<OrderEntity> findUserOrdersByFilters(
+    Page<Long> findUserOrderIdsByNumber(
             @Param("userId") Long userId,
             @Param("status") String status,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
-            @Param("searchQuery") String searchQuery,
+            @Param("orderId") Long orderId,
+            @Param("term") String term,
+            @Param("pattern") String pattern,
+            Pageable pageable);
+
+    String USER_TEXT_SEARCH = """
+        AND (o.shipping_address ILIKE :pattern OR o.shipping_city ILIKE :pattern
+             OR o.shipping_postal_code ILIKE :pattern)
+    """;
+
+    @Query(value = "SELECT o.id FROM orders o WHERE o.user_id = :userId AND " + ORDER_FILTERS + USER_TEXT_SEARCH
+            + " ORDER BY o.date DESC",
+            countQuery = "SELECT COUNT(o.id) FROM orders o WHERE o.user_id = :userId AND " + ORDER_FILTERS
+                    + USER_TEXT_SEARCH,
+            nativeQuery = true)
+    Page<Long> findUserOrderIdsByText(
+            @Param("userId") Long userId,
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("pattern") String pattern,
+            Pageable pageable);
+
+    // Todas las órdenes (admin): se trae un id más que el tamaño de página para saber si hay siguiente
+    // sin contar; el total se pide aparte con los count* y se cachea por filtro
+    @Query(value = "SELECT o.id FROM orders o WHERE " + ORDER_FILTERS + " ORDER BY o.date DESC", nativeQuery = true)
+    Slice<Long> findOrderIdsByFilters(
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable);
+
+    @Query(value = "SELECT COUNT(o.id) FROM orders o WHERE " + ORDER_FILTERS, nativeQuery = true)
+    long countOrdersByFilters(
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    String NUMBER_SEARCH = """
+        AND (o.id = :orderId OR o.payment_id = :term OR o.mercadopago_order_id = :term
+             OR o.customer_nro_doc = :term)
+    """;
+
+    @Query(value = "SELECT o.id FROM orders o WHERE " + ORDER_FILTERS + NUMBER_SEARCH + " ORDER BY o.date DESC",
+            nativeQuery = true)
+    Slice<Long> findOrderIdsByNumber(
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("orderId") Long orderId,
+            @Param("term") String term,
             Pageable pageable);
 
-    @Query(value = """
-    SELECT o.* FROM orders o 
-    LEFT JOIN users u ON o.user_id = u.id
-    WHERE 
-    (CAST(:status AS VARCHAR) IS NULL OR o.status = CAST(:status AS VARCHAR))
-    AND (CAST(:startDate AS TIMESTAMP) IS NULL OR o.date >= CAST(:startDate AS TIMESTAMP))
-    AND (CAST(:endDate AS TIMESTAMP) IS NULL OR o.date <= CAST(:endDate AS TIMESTAMP))
-    AND (
-        CAST(:searchQuery AS VARCHAR) IS NULL 
-        OR CAST(o.id AS TEXT) LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR o.payment_id LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR o.mercadopago_order_id LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR LOWER(u.email) LIKE LOWER(CONCAT('%', CAST(:searchQuery AS VARCHAR), '%'))
-        OR o.customer_nro_doc LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-    )
-    ORDER BY o.date DESC
-    """,
-            countQuery = """
-    SELECT COUNT(o.id) FROM orders o 
-    LEFT JOIN users u ON o.user_id = u.id
-    WHERE 
-    (CAST(:status AS VARCHAR) IS NULL OR o.status = CAST(:status AS VARCHAR))
-    AND (CAST(:startDate AS TIMESTAMP) IS NULL OR o.date >= CAST(:startDate AS TIMESTAMP))
-    AND (CAST(:endDate AS TIMESTAMP) IS NULL OR o.date <= CAST(:endDate AS TIMESTAMP))
-    AND (
-        CAST(:searchQuery AS VARCHAR) IS NULL 
-        OR CAST(o.id AS TEXT) LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR o.payment_id LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR o.mercadopago_order_id LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-        OR LOWER(u.email) LIKE LOWER(CONCAT('%', CAST(:searchQuery AS VARCHAR), '%'))
-        OR o.customer_nro_doc LIKE CONCAT('%', CAST(:searchQuery AS VARCHAR), '%')
-    )
-    """,
+    @Query(value = "SELECT COUNT(o.id) FROM orders o WHERE " + ORDER_FILTERS + NUMBER_SEARCH, nativeQuery = true)
+    long countOrdersByNumber(
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("orderId") Long orderId,
+            @Param("term") String term);
+
+    // El email se compara en minúsculas contra el índice funcional LOWER(email)
+    String EMAIL_SEARCH = " AND LOWER(u.email) = :email";
+
+    @Query(value = "SELECT o.id FROM orders o JOIN users u ON o.user_id = u.id WHERE " + ORDER_FILTERS
+            + EMAIL_SEARCH + " ORDER BY o.date DESC",
             nativeQuery = true)
-    Page<OrderEntity> findOrdersByFilters(
+    Slice<Long> findOrderIdsByEmail(
             @Param("status") String status,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
-            @Param("searchQuery") String searchQuery,
+            @Param("email") String email,
             Pageable pageable);
 
+    @Query(value = "SELECT COUNT(o.id) FROM orders o JOIN users u ON o.user_id = u.id WHERE " + ORDER_FILTERS
+            + EMAIL_SEARCH, nativeQuery = true)
+    long countOrdersByEmail(
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("email") String email);
+
+    String TEXT_SEARCH = " AND u.email ILIKE :pattern";
+
+    @Query(value = "SELECT o.id FROM orders o JOIN users u ON o.user_id = u.id WHERE " + ORDER_FILTERS
+            + TEXT_SEARCH + " ORDER BY o.date DESC",
+            nativeQuery = true)
+    Slice<Long> findOrderIdsByText(
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("pattern") String pattern,
+            Pageable pageable);
+
+    @Query(value = "SELECT COUNT(o.id) FROM orders o JOIN users u ON o.user_id = u.id WHERE " + ORDER_FILTERS
+            + TEXT_SEARCH, nativeQuery = true)
+    long countOrdersByText(
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("pattern") String pattern);
+
     // Reporte de ventas por método de pago
     @Query("""
         SELECT pm.displayName AS paymentMethod, 
@@ -142,21 +198,49 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
-    // Contar órdenes por usuario y estado
-    Long countByCustomerIdAndStatus(Long customerId, OrderStatus status);
-
-    // Obtener total gastado por usuario
+    // Estadísticas de un usuario en una sola pasada sobre sus órdenes (agregación condicional)
     @Query("""
-        SELECT COALESCE(SUM(o.subtotal + COALESCE(o.shippingCost, 0)), 0)
+        SELECT new org.example.back.dtos.UserOrderStatisticsDTO(
+            COUNT(o),
+            COALESCE(SUM(CASE WHEN o.status NOT IN ('CANCELLED', 'PENDING')
+                              THEN o.subtotal + COALESCE(o.shippingCost, 0) END), 0),
+            COUNT(CASE WHEN o.status = 'PENDING' THEN 1 END),
+            COUNT(CASE WHEN o.status = 'DELIVERED' THEN 1 END),
+            COUNT(CASE WHEN o.status = 'PROCESSING' THEN 1 END),
+            COUNT(CASE WHEN o.status = 'CANCELLED' THEN 1 END))
         FROM OrderEntity o
         WHERE o.customer.id = :customerId
-        AND o.status NOT IN ('CANCELLED', 'PENDING')
     """)
-    BigDecimal getTotalSpentByCustomer(@Param("customerId") Long customerId);
-
-    // Contar total de órdenes por usuario
-    Long countByCustomerId(Long customerId);
+    UserOrderStatisticsDTO getUserOrderStatistics(@Param("customerId") Long customerId);
 
     @Query("SELECT o FROM OrderEntity o WHERE o.id = :orderId AND o.customer.id = :userId")
     Optional<OrderEntity> findByIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
+
+    // Orden con sus detalles y productos (marca, categoría, proveedor) en una sola consulta, para reordenar
+    @Query("""
+        SELECT DISTINCT o FROM OrderEntity o
+        LEFT JOIN FETCH o.details d
+        LEFT JOIN FETCH d.product p
+        LEFT JOIN FETCH p.brand
+        LEFT JOIN FETCH p.category
+        LEFT JOIN FETCH p.provider
+        WHERE o.id = :orderId AND o.customer.id = :userId
+    """)
+    Optional<OrderEntity> findWithDetailsByIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
+
+    // Órdenes con cliente, pago, envío, detalles y productos en una sola consulta para armar OrderResponse;
+    // las imágenes se cargan en batch por el @BatchSize de ProductEntity.imageUrls. No respeta el orden de ids
+    @Query("""
+        SELECT DISTINCT o FROM OrderEntity o
+        JOIN FETCH o.customer
+        JOIN FETCH o.paymentMethod
+        JOIN FETCH o.shipping
+        LEFT JOIN FETCH o.details d
+        LEFT JOIN FETCH d.product p
+        LEFT JOIN FETCH p.brand
+        LEFT JOIN FETCH p.category
+        LEFT JOIN FETCH p.provider
+        WHERE o.id IN :ids
+    """)
+    List<OrderEntity> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,11 +1,21 @@
 package org.example.back.repositories;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.example.back.dtos.ProductCardDTO;
 import org.example.back.entities.ProductEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -14,15 +24,126 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
 
     boolean existsByNameIgnoreCaseAndIdIsNot(String name, Long id);
 
+    // Pares [id, name] para validar nombres duplicados en la importación masiva sin cargar entidades
+    @Query("SELECT p.id, p.name FROM ProductEntity p")
+    List<Object[]> findAllIdsAndNames();
+
+    @EntityGraph(attributePaths = {"brand", "category", "provider"})
     List<ProductEntity> findByActiveTrue();
 
-    List<ProductEntity> findByCategoryId(Long categoryId);
+    // Filtro de activos en la base, respaldado por los índices (category_id, active) y (brand_id, active)
+    @EntityGraph(attributePaths = {"brand", "category", "provider"})
+    List<ProductEntity> findByCategoryIdAndActiveTrue(Long categoryId, Sort sort);
+
+    @EntityGraph(attributePaths = {"brand", "category", "provider"})
+    Page<ProductEntity> findByCategoryIdAndActiveTrue(Long categoryId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"brand", "category", "provider"})
+    List<ProductEntity> findByBrandIdAndActiveTrue(Long brandId, Sort sort);
+
+    @EntityGraph(attributePaths = {"brand", "category", "provider"})
+    Page<ProductEntity> findByBrandIdAndActiveTrue(Long brandId, Pageable pageable);
 
-    List<ProductEntity> findByBrandId(Long brandId);
+    // Productos de una orden o de un evento de cambio, con marca y categoría en la misma consulta
+    @EntityGraph(attributePaths = {"brand", "category", "provider"})
+    List<ProductEntity> findByIdIn(Collection<Long> ids);
 
     List<ProductEntity> findByActiveFalse();
 
     List<ProductEntity> findByStock(int stock);
 
+    @EntityGraph(attributePaths = {"brand", "category", "provider"})
     Page<ProductEntity> findByActiveTrue(Pageable pageable);
+
+    // Paginación por clave (keyset): evita OFFSET y el COUNT(*) de Page
+    @EntityGraph(attributePaths = {"brand", "category", "provider"})
+    List<ProductEntity> findByActiveTrueAndIdGreaterThanOrderByIdAsc(Long lastId, Limit limit);
+
+    // [id, name, stock] leídos de la base: al ser valores escalares no salen de productos ya cargados
+    // en el contexto de persistencia, que pueden tener un stock viejo
+    @Query("SELECT p.id, p.name, p.stock FROM ProductEntity p WHERE p.id IN :ids")
+    List<Object[]> findStockRows(@Param("ids") Collection<Long> ids);
+
+    // Cantidad de productos activos por marca y categoría para el árbol de navegación
+    @Query("""
+        SELECT p.brand.id, p.category.id, COUNT(p)
+        FROM ProductEntity p
+        WHERE p.active = true
+        GROUP BY p.brand.id, p.category.id
+    """)
+    List<Object[]> countActiveProductsByBrandAndCategory();
+
+    @Query("""
+        SELECT p.brand.id, p.category.id, COUNT(p)
+        FROM ProductEntity p
+        WHERE p.active = true AND p.brand.id = :brandId
+        GROUP BY p.brand.id, p.category.id
+    """)
+    List<Object[]> countActiveProductsByCategoryForBrand(@Param("brandId") Long brandId);
+
+    // Ids alcanzados por un ajuste masivo; filterByIds evita pasar una lista vacía al IN
+    @Query("""
+        SELECT p.id FROM ProductEntity p
+        WHERE (:brandId IS NULL OR p.brand.id = :brandId)
+        AND (:categoryId IS NULL OR p.category.id = :categoryId)
+        AND (:filterByIds = false OR p.id IN :productIds)
+    """)
+    List<Long> findIdsForAdjustment(@Param("brandId") Long brandId, @Param("categoryId") Long categoryId,
+                                    @Param("filterByIds") boolean filterByIds, @Param("productIds") Collection<Long> productIds);
+
+    // [brandId, categoryId] distintos de los productos indicados
+    @Query("SELECT DISTINCT p.brand.id, p.category.id FROM ProductEntity p WHERE p.id IN :ids")
+    List<Object[]> findBrandAndCategoryIds(@Param("ids") Collection<Long> ids);
+
+    // Los ajustes que dejarían el precio fuera de rango no se aplican. Se pasa el porcentaje y no el factor
+    // porque el parámetro toma la escala de price (2 decimales) y un factor como 1.075 se redondearía
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE ProductEntity p SET p.price = ROUND(p.price * (100BD + :percentage) / 100BD, 2)
+        WHERE p.id IN :ids
+        AND ROUND(p.price * (100BD + :percentage) / 100BD, 2) > 0
+        AND ROUND(p.price * (100BD + :percentage) / 100BD, 2) <= :maxPrice
+    """)
+    int applyPercentageToPrices(@Param("ids") Collection<Long> ids, @Param("percentage") BigDecimal percentage, @Param("maxPrice") BigDecimal maxPrice);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE ProductEntity p SET p.price = p.price + :amount
+        WHERE p.id IN :ids AND p.price + :amount > 0 AND p.price + :amount <= :maxPrice
+    """)
+    int addToPrices(@Param("ids") Collection<Long> ids, @Param("amount") BigDecimal amount, @Param("maxPrice") BigDecimal maxPrice);
+
+    // Actualiza el stock y registra el movimiento de cada fila efectivamente modificada en una única sentencia;
+    // las filas que quedarían con stock negativo no se tocan. Cada nextval reserva un bloque completo
+    // de la secuencia (allocationSize 50), por lo que estos ids nunca chocan con los que asigna Hibernate
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        WITH updated AS (
+            UPDATE products SET stock = stock + :delta
+            WHERE id IN (:ids) AND stock + :delta >= 0
+            RETURNING id
+        )
+        INSERT INTO replenishments (id, product_id, quantity, date, movement_type)
+        SELECT nextval('replenishments_seq'), id, ABS(:delta), :date, :movementType FROM updated
+    """, nativeQuery = true)
+    int adjustStockWithMovements(@Param("ids") Collection<Long> ids, @Param("delta") int delta,
+                                 @Param("date") LocalDateTime date, @Param("movementType") String movementType);
+
+    // Proyección con solo las columnas de la tarjeta del listado, en una sola consulta (más el COUNT)
+    @Query(value = """
+        SELECT new org.example.back.dtos.ProductCardDTO(
+            p.id,
+            p.name,
+            p.price,
+            p.stock,
+            (SELECT img FROM ProductEntity pi JOIN pi.imageUrls img WHERE pi.id = p.id AND INDEX(img) = 0),
+            b.name,
+            c.name)
+        FROM ProductEntity p
+        JOIN p.brand b
+        JOIN p.category c
+        WHERE p.active = true
+    """,
+            countQuery = "SELECT COUNT(p) FROM ProductEntity p WHERE p.active = true")
+    Page<ProductCardDTO> findActiveProductCards(Pageable pageable);
 }
@@ -1,10 +1,12 @@
 package org.example.back.repositories;
 
 import org.example.back.entities.OrderEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -360,4 +362,38 @@ public interface ReportRepository extends Repository<OrderEntity, Long> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
+
+    // ==================== REPORTES DE CARRITOS ABANDONADOS ====================
+
+    /**
+     * Totales diarios de carritos abandonados (filas resumen sin producto)
+     */
+    @Query("""
+        SELECT s.summaryDate, s.cartCount, s.units, s.totalValue
+        FROM AbandonedCartSummaryEntity s
+        WHERE s.product IS NULL
+        AND s.summaryDate BETWEEN :startDate AND :endDate
+        ORDER BY s.summaryDate DESC
+    """)
+    List<Object[]> getAbandonedCartsByDay(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Productos que más valor dejaron en carritos abandonados
+     */
+    @Query("""
+        SELECT p.id, p.name, SUM(s.cartCount), SUM(s.units), SUM(s.totalValue)
+        FROM AbandonedCartSummaryEntity s
+        JOIN s.product p
+        WHERE s.summaryDate BETWEEN :startDate AND :endDate
+        GROUP BY p.id, p.name
+        ORDER BY SUM(s.totalValue) DESC
+    """)
+    List<Object[]> getTopAbandonedProducts(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable
+    );
 }
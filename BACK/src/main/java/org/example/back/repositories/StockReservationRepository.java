@@ -0,0 +1,31 @@
+package org.example.back.repositories;
+
+import org.example.back.entities.StockReservationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservationEntity, Long> {
+
+    // Filas [userId, productId, quantity, expiresAt] de las reservas vigentes, para reconstruir los contadores al iniciar
+    @Query("""
+        SELECT r.user.id, r.product.id, r.quantity, r.expiresAt
+        FROM StockReservationEntity r
+        WHERE r.expiresAt > :now
+    """)
+    List<Object[]> findActiveRows(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM StockReservationEntity r WHERE r.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM StockReservationEntity r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,12 @@
+package org.example.back.services;
+
+import org.example.back.dtos.BrandTreeDTO;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public interface BrandTreeService {
+    List<BrandTreeDTO> getBrandTree();
+    void rebuildTree();
+}
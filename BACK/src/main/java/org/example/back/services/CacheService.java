@@ -0,0 +1,11 @@
+package org.example.back.services;
+
+import org.example.back.dtos.CacheStatsDTO;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public interface CacheService {
+    List<CacheStatsDTO> getCacheStatistics();
+}
@@ -4,7 +4,9 @@ import com.mercadopago.exceptions.MPApiException;
 import com.mercadopago.exceptions.MPException;
 import org.example.back.dtos.CartDTO;
 import org.example.back.dtos.CheckoutDTO;
+import org.example.back.dtos.request.CartItemsRequest;
 import org.example.back.dtos.request.UpdateShippingRequest;
+import org.example.back.dtos.response.ReorderResponse;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -12,10 +14,11 @@ public interface CartService {
     CartDTO getCartByUser();
     CartDTO addItemToCart(Long productId);
     CartDTO updateCartItem(Long productId, Integer quantity);
+    CartDTO applyItemOperations(CartItemsRequest request);
     void removeItemFromCart(Long productId);
     void clearCart(String email);
     String initiatePayment() throws MPException, MPApiException;
     CartDTO updateShippingInfo(UpdateShippingRequest request);
     CheckoutDTO getCheckoutInfo();
-    CartDTO reorderFromOrder(Long orderId);
+    ReorderResponse reorderFromOrder(Long orderId);
 }
@@ -0,0 +1,12 @@
+package org.example.back.services;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public interface CatalogVersionService {
+    String getProductsETag();
+    String getBrandsETag();
+    String getBrandTreeETag();
+    String getShippingETag();
+    void shippingChanged();
+}
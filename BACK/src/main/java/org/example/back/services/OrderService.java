@@ -14,7 +14,7 @@ import java.util.List;
 public interface OrderService {
     OrderResponse createOrder (OrderRequest orderRequest, String userEmail);
     PageResponse<OrderResponse> getUserOrders(OrderStatus status, LocalDateTime startDate, LocalDateTime endDate, String searchQuery, int page, int size)  ;
-   PageResponse<OrderResponse> getAllOrders(OrderStatus status, LocalDateTime startDate,  LocalDateTime endDate, String searchQuery, int page, int size);
+   PageResponse<OrderResponse> getAllOrders(OrderStatus status, LocalDateTime startDate,  LocalDateTime endDate, String searchQuery, int page, int size, boolean includeTotal);
    OrderResponse updateOrderStatus(Long orderId, OrderStatus status);
    UserOrderStatisticsDTO getUserOrderStatistics();
    OrderResponse getOrderById(Long orderId);
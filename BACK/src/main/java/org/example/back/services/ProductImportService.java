@@ -0,0 +1,14 @@
+package org.example.back.services;
+
+import org.example.back.dtos.response.BulkImportResponse;
+import org.example.back.models.Product;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.List;
+
+@Service
+public interface ProductImportService {
+    BulkImportResponse importProducts(List<Product> products);
+    BulkImportResponse importProductsCsv(InputStream csv);
+}
@@ -0,0 +1,12 @@
+package org.example.back.services;
+
+import org.example.back.models.Product;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public interface ProductSearchService {
+    List<Product> search(String query, int limit);
+    void rebuildIndex();
+}
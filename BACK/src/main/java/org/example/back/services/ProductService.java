@@ -2,6 +2,10 @@ package org.example.back.services;
 
 import java.util.List;
 
+import org.example.back.dtos.ProductCardDTO;
+import org.example.back.dtos.request.BulkAdjustmentRequest;
+import org.example.back.dtos.response.BulkAdjustmentResponse;
+import org.example.back.dtos.response.CursorPageResponse;
 import org.example.back.models.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,11 +19,16 @@ public interface ProductService {
     Page<Product> getAllProducts(Pageable pageable);
     List<Product> getAllProductsActive();
     Page<Product> getAllProductsActive(Pageable pageable);
+    CursorPageResponse<Product> getAllProductsActive(String cursor, int size);
+    Page<ProductCardDTO> getActiveProductCards(Pageable pageable);
     List<Product> getAllProductsByCategory(Long categoryId);
+    Page<Product> getAllProductsByCategory(Long categoryId, Pageable pageable);
     List<Product> getAllProductsByBrand(Long brandId);
+    Page<Product> getAllProductsByBrand(Long brandId, Pageable pageable);
     List<Product> getAllProductsDesactive();
     Product deteleProduct(Long productId);
     Product reactiveProduct(Long productId);
     Product getProductById(Long productId);
     List<Product> getAllProductsWithNoStock();
+    BulkAdjustmentResponse adjustProducts(BulkAdjustmentRequest request);
 }
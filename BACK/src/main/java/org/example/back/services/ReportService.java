@@ -23,4 +23,5 @@ public interface ReportService {
     List<ShippingMethodReportDTO> getShippingMethodReport(LocalDateTime startDate, LocalDateTime endDate);
     List<MonthlyTrendsDTO> getMonthlyTrends(LocalDateTime startDate, LocalDateTime endDate);
     TopProductByPeriodDTO getTopProductByPeriod(String periodType, LocalDateTime startDate, LocalDateTime endDate);
+    AbandonedCartReportDTO getAbandonedCartReport(LocalDateTime startDate, LocalDateTime endDate, int limit);
 }
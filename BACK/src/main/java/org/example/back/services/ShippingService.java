@@ -11,4 +11,5 @@ public interface ShippingService {
     List<ShippingDTO> getAllActiveShippingMethods();
     ShippingDTO getShippingById(Long id);
     BigDecimal calculateShippingCost(Long shippingId, String postalCode);
+    void refreshShippingMethods();
 }
@@ -0,0 +1,16 @@
+package org.example.back.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+public interface StockReservationService {
+    // Reemplaza la reserva vigente del usuario; falla con "Stock insuficiente" si algún producto no alcanza
+    void reserve(Long userId, Map<Long, Integer> quantities);
+    void release(Long userId);
+    // Consume la reserva del usuario dentro de la transacción actual y devuelve las cantidades reservadas
+    Map<Long, Integer> convert(Long userId);
+    int getReservedQuantity(Long productId);
+    void expireReservations();
+}
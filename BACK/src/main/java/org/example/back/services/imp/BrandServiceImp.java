@@ -7,6 +7,8 @@ import org.example.back.dtos.BrandDTO;
 import org.example.back.dtos.CategoryDTO;
 import org.example.back.entities.BrandEntity;
 import org.example.back.entities.CategoryEntity;
+import org.example.back.events.BrandChangedEvent;
+import org.example.back.mappers.CatalogMapper;
 import org.example.back.models.Brand;
 import org.example.back.models.Category;
 import org.example.back.repositories.BrandRepository;
@@ -14,6 +16,7 @@ import org.example.back.repositories.CategoryRepository;
 import org.example.back.services.BrandService;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -28,6 +31,12 @@ public class BrandServiceImp implements BrandService{
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private CatalogMapper catalogMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public Brand createBrand(BrandDTO brandDTO) {
         if (brandDTO == null || brandDTO.getName() == null) {
@@ -45,7 +54,8 @@ public class BrandServiceImp implements BrandService{
         BrandEntity entity = modelMapper.map(brandDTO, BrandEntity.class);
         entity.setActive(true);
         BrandEntity savedEntity = brandRepository.save(entity);
-        Brand createdBrand = modelMapper.map(savedEntity, Brand.class);
+        eventPublisher.publishEvent(BrandChangedEvent.brand(savedEntity.getId()));
+        Brand createdBrand = catalogMapper.toBrand(savedEntity);
         return createdBrand;
     }
 
@@ -66,7 +76,8 @@ public class BrandServiceImp implements BrandService{
         }
     
         BrandEntity updatedEntity = brandRepository.save(entity);
-        Brand updatedBrand = modelMapper.map(updatedEntity, Brand.class);
+        eventPublisher.publishEvent(BrandChangedEvent.brand(brandId));
+        Brand updatedBrand = catalogMapper.toBrand(updatedEntity);
         return updatedBrand;
     }
 
@@ -74,7 +85,7 @@ public class BrandServiceImp implements BrandService{
     public List<Brand> getAllBrandsActive() {
         List<BrandEntity> entities = brandRepository.findByActiveTrue();
         return entities.stream()
-                .map(entity -> modelMapper.map(entity, Brand.class))
+                .map(catalogMapper::toBrand)
                 .collect(Collectors.toList());
     }
 
@@ -83,7 +94,7 @@ public class BrandServiceImp implements BrandService{
     public List<Brand> getAllBrands() {
         List<BrandEntity> entities = brandRepository.findAll();
         return entities.stream()
-                .map(entity -> modelMapper.map(entity, Brand.class))
+                .map(catalogMapper::toBrand)
                 .collect(Collectors.toList());
     }
 
@@ -116,7 +127,8 @@ public class BrandServiceImp implements BrandService{
         entity.setBrand(brandEntity);
         entity.setActive(true);
         CategoryEntity savedEntity = categoryRepository.save(entity);
-        return modelMapper.map(savedEntity, Category.class);
+        eventPublisher.publishEvent(BrandChangedEvent.category(brandId, savedEntity.getId()));
+        return catalogMapper.toCategory(savedEntity);
     }
 
     @Override
@@ -139,7 +151,8 @@ public Category updateCategory(Long brandId, Long categoryId, CategoryDTO catego
     }
 
     CategoryEntity updatedEntity = categoryRepository.save(entity);
-    Category updatedCategory = modelMapper.map(updatedEntity, Category.class);
+    eventPublisher.publishEvent(BrandChangedEvent.category(brandId, categoryId));
+    Category updatedCategory = catalogMapper.toCategory(updatedEntity);
     return updatedCategory;
 }
 
@@ -162,7 +175,7 @@ public Category updateCategory(Long brandId, Long categoryId, CategoryDTO catego
             throw new IllegalArgumentException("No categories found for this brand");
         }
 
-        return categoryEntities.stream().map(categoryEntity -> modelMapper.map(categoryEntity, Category.class)).collect(Collectors.toList());
+        return categoryEntities.stream().map(catalogMapper::toCategory).collect(Collectors.toList());
     }
 
     @Override
@@ -185,7 +198,7 @@ public Category updateCategory(Long brandId, Long categoryId, CategoryDTO catego
             throw new IllegalArgumentException("No categories found for this brand");
         }
 
-        return categoryEntities.stream().map(categoryEntity -> modelMapper.map(categoryEntity, Category.class)).collect(Collectors.toList());
+        return categoryEntities.stream().map(catalogMapper::toCategory).collect(Collectors.toList());
     }
 
     @Override
@@ -200,7 +213,8 @@ public Category updateCategory(Long brandId, Long categoryId, CategoryDTO catego
         if(entity.isActive()){
             entity.setActive(false);
             BrandEntity updatedEntity = brandRepository.save(entity);
-            return modelMapper.map(updatedEntity, Brand.class);
+            eventPublisher.publishEvent(BrandChangedEvent.brand(brandId));
+            return catalogMapper.toBrand(updatedEntity);
         } else {
             throw new IllegalArgumentException("Brand is already inactive");
         }
@@ -218,7 +232,8 @@ public Category updateCategory(Long brandId, Long categoryId, CategoryDTO catego
         if(!entity.isActive()){
             entity.setActive(true);
             BrandEntity updatedEntity = brandRepository.save(entity);
-            return modelMapper.map(updatedEntity, Brand.class);
+            eventPublisher.publishEvent(BrandChangedEvent.brand(brandId));
+            return catalogMapper.toBrand(updatedEntity);
         } else {
             throw new IllegalArgumentException("Brand is already active");
         }
@@ -239,7 +254,8 @@ public Category updateCategory(Long brandId, Long categoryId, CategoryDTO catego
         if(entity.isActive()){
             entity.setActive(false);
             CategoryEntity updatedEntity = categoryRepository.save(entity);
-            return modelMapper.map(updatedEntity, Category.class);
+            eventPublisher.publishEvent(BrandChangedEvent.category(brandId, categoryId));
+            return catalogMapper.toCategory(updatedEntity);
         } else {
             throw new IllegalArgumentException("Category is already inactive");
         }
@@ -260,7 +276,8 @@ public Category updateCategory(Long brandId, Long categoryId, CategoryDTO catego
         if(!entity.isActive()){
             entity.setActive(true);
             CategoryEntity updatedEntity = categoryRepository.save(entity);
-            return modelMapper.map(updatedEntity, Category.class);
+            eventPublisher.publishEvent(BrandChangedEvent.category(brandId, categoryId));
+            return catalogMapper.toCategory(updatedEntity);
         } else {
             throw new IllegalArgumentException("Category is already active");
         }
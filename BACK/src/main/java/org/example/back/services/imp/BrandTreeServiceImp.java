@@ -0,0 +1,144 @@
+package org.example.back.services.imp;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.back.dtos.BrandTreeDTO;
+import org.example.back.dtos.CategoryTreeDTO;
+import org.example.back.entities.BrandEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.events.BrandChangedEvent;
+import org.example.back.events.ProductChangedEvent;
+import org.example.back.repositories.BrandRepository;
+import org.example.back.repositories.CategoryRepository;
+import org.example.back.repositories.ProductRepository;
+import org.example.back.services.BrandTreeService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Árbol marca → categoría con la cantidad de productos activos, materializado en memoria para el menú.
+ * Se arma completo al iniciar y luego solo se recalculan las marcas afectadas por cada cambio;
+ * las lecturas devuelven la última versión publicada sin consultar la base.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BrandTreeServiceImp implements BrandTreeService {
+
+    private static final Comparator<BrandTreeDTO> BRAND_ORDER =
+            Comparator.comparing(BrandTreeDTO::getName, String.CASE_INSENSITIVE_ORDER);
+    private static final Comparator<CategoryTreeDTO> CATEGORY_ORDER =
+            Comparator.comparing(CategoryTreeDTO::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+
+    private final Map<Long, BrandTreeDTO> nodes = new HashMap<>();
+    private volatile List<BrandTreeDTO> tree = List.of();
+
+    @Override
+    public List<BrandTreeDTO> getBrandTree() {
+        return tree;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuildTree() {
+        List<BrandEntity> brands = brandRepository.findByActiveTrue();
+        Map<Long, List<CategoryEntity>> categoriesByBrand = categoryRepository.findByActiveTrueAndBrandActiveTrue().stream()
+                .collect(Collectors.groupingBy(category -> category.getBrand().getId()));
+        Map<Long, Map<Long, Long>> counts = groupCounts(productRepository.countActiveProductsByBrandAndCategory());
+
+        nodes.clear();
+        for (BrandEntity brand : brands) {
+            nodes.put(brand.getId(), buildNode(brand,
+                    categoriesByBrand.getOrDefault(brand.getId(), List.of()),
+                    counts.getOrDefault(brand.getId(), Map.of())));
+        }
+        publish();
+        log.info("Brand tree built with {} brands", nodes.size());
+    }
+
+    // Antes que CatalogVersionServiceImp: el ETag del árbol no debe anunciar una versión que todavía no se publicó
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onBrandChanged(BrandChangedEvent event) {
+        refreshBrand(event.getBrandId());
+        publish();
+    }
+
+    // Solo los cambios de composición (alta, baja, cambio de marca/categoría) modifican los conteos
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (!event.isListingChanged()) {
+            return;
+        }
+        event.getBrandIds().forEach(this::refreshBrand);
+        publish();
+    }
+
+    private void refreshBrand(Long brandId) {
+        Optional<BrandEntity> brand = brandRepository.findById(brandId).filter(BrandEntity::isActive);
+        if (brand.isEmpty()) {
+            nodes.remove(brandId);
+            return;
+        }
+
+        List<CategoryEntity> categories = categoryRepository.findByBrandAndActiveTrue(brand.get());
+        Map<Long, Long> counts = groupCounts(productRepository.countActiveProductsByCategoryForBrand(brandId))
+                .getOrDefault(brandId, Map.of());
+        nodes.put(brandId, buildNode(brand.get(), categories, counts));
+    }
+
+    private BrandTreeDTO buildNode(BrandEntity brand, List<CategoryEntity> categories, Map<Long, Long> countsByCategory) {
+        List<CategoryTreeDTO> categoryNodes = categories.stream()
+                .map(category -> CategoryTreeDTO.builder()
+                        .id(category.getId())
+                        .name(category.getName())
+                        .productCount(countsByCategory.getOrDefault(category.getId(), 0L))
+                        .build())
+                .sorted(CATEGORY_ORDER)
+                .toList();
+
+        // El total de la marca incluye productos de categorías inactivas, igual que el listado por marca
+        long productCount = countsByCategory.values().stream().mapToLong(Long::longValue).sum();
+
+        return BrandTreeDTO.builder()
+                .id(brand.getId())
+                .name(brand.getName())
+                .productCount(productCount)
+                .categories(categoryNodes)
+                .build();
+    }
+
+    // Filas [brandId, categoryId, count] → brandId → (categoryId → count)
+    private Map<Long, Map<Long, Long>> groupCounts(List<Object[]> rows) {
+        Map<Long, Map<Long, Long>> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                    .put((Long) row[1], (Long) row[2]);
+        }
+        return counts;
+    }
+
+    private void publish() {
+        tree = nodes.values().stream()
+                .sorted(BRAND_ORDER)
+                .toList();
+    }
+}
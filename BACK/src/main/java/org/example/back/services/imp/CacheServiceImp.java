@@ -0,0 +1,39 @@
+package org.example.back.services.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.example.back.dtos.CacheStatsDTO;
+import org.example.back.services.CacheService;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class CacheServiceImp implements CacheService {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public List<CacheStatsDTO> getCacheStatistics() {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(name -> {
+                    Cache<Object, Object> cache = ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+                    CacheStats stats = cache.stats();
+                    return CacheStatsDTO.builder()
+                            .cacheName(name)
+                            .size(cache.estimatedSize())
+                            .hitCount(stats.hitCount())
+                            .missCount(stats.missCount())
+                            .hitRate(stats.hitRate())
+                            .evictionCount(stats.evictionCount())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+}
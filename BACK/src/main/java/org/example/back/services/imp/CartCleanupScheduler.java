@@ -0,0 +1,169 @@
+package org.example.back.services.imp;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.back.entities.AbandonedCartSummaryEntity;
+import org.example.back.repositories.AbandonedCartSummaryRepository;
+import org.example.back.repositories.CartRepository;
+import org.example.back.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Limpieza periódica de carritos:
+ * - carritos vacíos abandonados. Desde que el carrito se crea con la primera modificación
+ *   solo quedan vacíos los que el usuario vació o los creados antes de ese cambio;
+ * - carritos con productos sin actividad, cuyas métricas (valor, unidades, productos) se acumulan
+ *   en abandoned_cart_summary para los reportes antes de borrarlos.
+ * Los carritos se recorren por id y cada lote se procesa en su propia transacción para no mantener
+ * locks largos sobre cart y cart_item.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartCleanupScheduler {
+
+    private final CartRepository cartRepository;
+    private final AbandonedCartSummaryRepository summaryRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${cart.cleanup.empty-retention-days:7}")
+    private long emptyRetentionDays;
+
+    @Value("${cart.cleanup.abandoned-after-days:30}")
+    private long abandonedAfterDays;
+
+    @Value("${cart.cleanup.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${cart.cleanup.cron:0 30 3 * * *}")
+    public void deleteEmptyCarts() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(emptyRetentionDays);
+        long lastId = 0L;
+        int deleted = 0;
+
+        while (true) {
+            List<Long> ids = cartRepository.findEmptyCartIds(cutoff, lastId, PageRequest.ofSize(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+            try {
+                Integer batchDeleted = transactionTemplate.execute(status -> cartRepository.deleteEmptyCarts(ids));
+                deleted += batchDeleted != null ? batchDeleted : 0;
+            } catch (DataIntegrityViolationException e) {
+                // El IS EMPTY se evalúa con el snapshot del DELETE: un ítem insertado en paralelo hace fallar la FK.
+                // Se saltea el lote (se reintenta en la próxima ejecución) y se sigue con los demás
+                log.warn("Skipped empty cart batch up to id {}: a cart received items while being deleted", lastId, e);
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Deleted {} empty carts not modified since {}", deleted, cutoff);
+        }
+    }
+
+    @Scheduled(cron = "${cart.cleanup.abandoned-cron:0 0 4 * * *}")
+    public void purgeAbandonedCarts() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(abandonedAfterDays);
+        long lastId = 0L;
+        int purged = 0;
+
+        while (true) {
+            List<Long> ids = cartRepository.findAbandonedCartIds(cutoff, LocalDateTime.now(), lastId, PageRequest.ofSize(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer batchPurged = transactionTemplate.execute(status -> purgeBatch(ids, cutoff));
+            purged += batchPurged != null ? batchPurged : 0;
+            lastId = ids.get(ids.size() - 1);
+        }
+
+        if (purged > 0) {
+            log.info("Purged {} abandoned carts with no activity since {}", purged, cutoff);
+        }
+    }
+
+    private int purgeBatch(List<Long> ids, LocalDateTime cutoff) {
+        // Se vuelve a filtrar con los carritos bloqueados: uno modificado o con pago iniciado después de la
+        // búsqueda ya no está abandonado, y mientras dure el lote nadie puede cambiarlo
+        List<Long> lockedIds = cartRepository.lockAbandonedCarts(ids, cutoff, LocalDateTime.now());
+        if (lockedIds.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> lines = cartRepository.findAbandonedCartLines(lockedIds, cutoff);
+        if (lines.isEmpty()) {
+            return 0;
+        }
+
+        // Métricas del lote por día de última actividad: totales del día (clave null) y por producto
+        Map<LocalDate, Map<Long, Metrics>> metricsByDate = new HashMap<>();
+        Map<LocalDate, Set<Long>> cartsByDate = new HashMap<>();
+        Set<Long> cartIds = new HashSet<>();
+        for (Object[] line : lines) {
+            Long cartId = (Long) line[0];
+            LocalDate date = ((LocalDateTime) line[1]).toLocalDate();
+            Long productId = (Long) line[2];
+            long quantity = ((Integer) line[3]).longValue();
+            BigDecimal value = ((BigDecimal) line[4]).multiply(BigDecimal.valueOf(quantity));
+
+            Map<Long, Metrics> dayMetrics = metricsByDate.computeIfAbsent(date, d -> new HashMap<>());
+            dayMetrics.computeIfAbsent(productId, id -> new Metrics()).add(1, quantity, value);
+            boolean newCart = cartsByDate.computeIfAbsent(date, d -> new HashSet<>()).add(cartId);
+            dayMetrics.computeIfAbsent(null, id -> new Metrics()).add(newCart ? 1 : 0, quantity, value);
+            cartIds.add(cartId);
+        }
+
+        // Se suman a las filas existentes de esos días o se crean
+        Map<LocalDate, Map<Long, AbandonedCartSummaryEntity>> existing = new HashMap<>();
+        for (AbandonedCartSummaryEntity summary : summaryRepository.findBySummaryDateIn(metricsByDate.keySet())) {
+            Long productId = summary.getProduct() != null ? summary.getProduct().getId() : null;
+            existing.computeIfAbsent(summary.getSummaryDate(), d -> new HashMap<>()).put(productId, summary);
+        }
+        List<AbandonedCartSummaryEntity> summaries = new ArrayList<>();
+        metricsByDate.forEach((date, dayMetrics) -> dayMetrics.forEach((productId, metrics) -> {
+            AbandonedCartSummaryEntity summary = existing.getOrDefault(date, Collections.emptyMap()).get(productId);
+            if (summary == null) {
+                summary = new AbandonedCartSummaryEntity(null, date,
+                        productId != null ? productRepository.getReferenceById(productId) : null,
+                        0L, 0L, BigDecimal.ZERO);
+            }
+            summary.setCartCount(summary.getCartCount() + metrics.carts);
+            summary.setUnits(summary.getUnits() + metrics.units);
+            summary.setTotalValue(summary.getTotalValue().add(metrics.value));
+            summaries.add(summary);
+        }));
+        summaryRepository.saveAll(summaries);
+
+        cartRepository.deleteAbandonedItems(cartIds, cutoff);
+        return cartRepository.deleteAbandonedCarts(cartIds, cutoff);
+    }
+
+    private static class Metrics {
+        private long carts;
+        private long units;
+        private BigDecimal value = BigDecimal.ZERO;
+
+        private void add(long carts, long units, BigDecimal value) {
+            this.carts += carts;
+            this.units += units;
+            this.value = this.value.add(value);
+        }
+    }
+}
@@ -4,12 +4,16 @@ import com.mercadopago.exceptions.MPApiException;
 import com.mercadopago.exceptions.MPException;
 import lombok.RequiredArgsConstructor;
 import org.example.back.dtos.*;
+import org.example.back.dtos.request.CartItemOperationRequest;
+import org.example.back.dtos.request.CartItemsRequest;
 import org.example.back.dtos.request.UpdateShippingRequest;
+import org.example.back.dtos.response.ReorderResponse;
 import org.example.back.entities.*;
 import org.example.back.models.User;
 import org.example.back.repositories.*;
 import org.example.back.services.CartService;
 import org.example.back.services.MercadoPagoService;
+import org.example.back.services.StockReservationService;
 import org.example.back.services.UserService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,8 +22,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,19 +43,20 @@ public class CartServiceImp implements CartService {
     private final ShippingService shippingService;
     private final ShippingRepository shippingRepository;
     private final OrderRepository orderRepository;
+    private final CartWriteBuffer cartWriteBuffer;
+    private final StockReservationService stockReservationService;
+
+    private static final int MAX_ITEM_OPERATIONS = 200;
+
+    // Si el usuario todavía no tiene carrito se devuelve uno vacío sin persistirlo:
+    // la fila se crea con la primera modificación. No es readOnly: escribe los cambios pendientes del buffer
     @Override
     @Transactional
     public CartDTO getCartByUser() {
         User user = userService.getCurrentUser();
-        CartEntity cart = cartRepository.findByUserId(user.getId())
-                .orElseGet(() -> {
-                    CartEntity newCart = new CartEntity();
-                    UserEntity userEntity = userRepository.findById(user.getId())
-                            .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-                    newCart.setUser(userEntity);
-                    newCart.setCreatedAt(LocalDateTime.now());
-                    return cartRepository.save(newCart);
-                });
+        cartWriteBuffer.flush(user.getId());
+        CartEntity cart = cartRepository.findWithItemsByUserId(user.getId())
+                .orElseGet(() -> createNewCart(user));
 
         return convertToDTO(cart);
     }
@@ -55,25 +65,18 @@ public class CartServiceImp implements CartService {
     @Transactional
     public CartDTO addItemToCart(Long productId) {
         User currentUser = userService.getCurrentUser();
-        UserEntity userEntity = userRepository.findById(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        cartWriteBuffer.flush(currentUser.getId());
 
         ProductEntity product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
         // Verificar stock disponible
-        Integer currentStock = getCurrentStock(productId);
-        if (currentStock < 1) {
+        if (product.getStock() < 1) {
             throw new RuntimeException("Stock insuficiente");
         }
 
-        CartEntity cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseGet(() -> {
-                    CartEntity newCart = new CartEntity();
-                    newCart.setUser(userEntity);
-                    newCart.setCreatedAt(LocalDateTime.now());
-                    return cartRepository.save(newCart);
-                });
+        CartEntity cart = cartRepository.findWithItemsByUserId(currentUser.getId())
+                .orElseGet(() -> createNewCart(currentUser));
 
         Optional<CartItemEntity> existingItem = cart.getItems().stream()
                 .filter(item -> item.getProduct().getId().equals(productId))
@@ -95,45 +98,112 @@ public class CartServiceImp implements CartService {
         return convertToDTO(cart);
     }
 
+    // Los cambios de cantidad se acumulan en memoria y se escriben en la base una sola vez
+    // cuando el usuario deja de modificar el carrito (ver CartWriteBuffer). La transacción de solo lectura
+    // cubre la carga inicial del carrito (imágenes lazy) sin depender de open-in-view
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public CartDTO updateCartItem( Long productId, Integer quantity) {
         User currentUser = userService.getCurrentUser();
-        CartEntity cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
+        return cartWriteBuffer.updateQuantity(currentUser.getId(), productId, quantity,
+                () -> convertToDTO(cartRepository.findWithItemsByUserId(currentUser.getId())
+                        .orElseThrow(() -> new RuntimeException("Carrito no encontrado"))));
+    }
 
-        CartItemEntity item = cart.getItems().stream()
-                .filter(i -> i.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado en el carrito"));
+    @Override
+    @Transactional
+    public CartDTO applyItemOperations(CartItemsRequest request) {
+        List<CartItemOperationRequest> operations = request == null || request.getOperations() == null
+                ? List.of() : request.getOperations();
+        if (operations.isEmpty() || operations.size() > MAX_ITEM_OPERATIONS) {
+            throw new RuntimeException("Debe enviar entre 1 y " + MAX_ITEM_OPERATIONS + " operaciones");
+        }
+        for (CartItemOperationRequest operation : operations) {
+            if (operation == null || operation.getType() == null || operation.getProductId() == null) {
+                throw new RuntimeException("Cada operación debe indicar tipo y producto");
+            }
+        }
 
-        if (quantity <= 0) {
-            cart.getItems().remove(item);
-        } else {
-            // Verificar stock disponible
-            Integer currentStock = getCurrentStock(productId);
-            if (currentStock < quantity) {
-                throw new RuntimeException("Stock insuficiente");
+        User currentUser = userService.getCurrentUser();
+        cartWriteBuffer.flush(currentUser.getId());
+
+        CartEntity cart = cartRepository.findWithItemsByUserId(currentUser.getId())
+                .orElseGet(() -> createNewCart(currentUser));
+
+        // Un solo SELECT para todos los productos involucrados
+        Set<Long> productIds = operations.stream()
+                .map(CartItemOperationRequest::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, ProductEntity> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+
+        // Cantidades finales por producto, partiendo del contenido actual del carrito
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        cart.getItems().forEach(item -> quantities.put(item.getProduct().getId(), item.getQuantity()));
+
+        for (CartItemOperationRequest operation : operations) {
+            Long productId = operation.getProductId();
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Producto no encontrado: " + productId);
+            }
+            switch (operation.getType()) {
+                case ADD -> {
+                    int quantity = operation.getQuantity() == null ? 1 : operation.getQuantity();
+                    if (quantity < 1) {
+                        throw new RuntimeException("Cantidad inválida para el producto " + productId);
+                    }
+                    quantities.merge(productId, quantity, Integer::sum);
+                }
+                case SET -> {
+                    if (operation.getQuantity() == null || operation.getQuantity() < 0) {
+                        throw new RuntimeException("Cantidad inválida para el producto " + productId);
+                    }
+                    if (operation.getQuantity() == 0) {
+                        quantities.remove(productId);
+                    } else {
+                        quantities.put(productId, operation.getQuantity());
+                    }
+                }
+                case REMOVE -> quantities.remove(productId);
             }
-            item.setQuantity(quantity);
         }
 
-        cart.setUpdatedAt(LocalDateTime.now());
-        cart = cartRepository.save(cart);
+        // El stock se valida sobre el resultado final, no sobre cada paso intermedio
+        quantities.forEach((productId, quantity) -> {
+            ProductEntity product = products.get(productId);
+            if (product != null && product.getStock() < quantity) {
+                throw new RuntimeException("Stock insuficiente para " + product.getName() +
+                        ". Disponible: " + product.getStock() + ", Solicitado: " + quantity);
+            }
+        });
 
-        return convertToDTO(cart);
+        cart.getItems().removeIf(item -> !quantities.containsKey(item.getProduct().getId()));
+        for (CartItemEntity item : cart.getItems()) {
+            item.setQuantity(quantities.remove(item.getProduct().getId()));
+        }
+        quantities.forEach((productId, quantity) -> {
+            CartItemEntity newItem = new CartItemEntity();
+            newItem.setCart(cart);
+            newItem.setProduct(products.get(productId));
+            newItem.setQuantity(quantity);
+            cart.getItems().add(newItem);
+        });
+
+        cart.setUpdatedAt(LocalDateTime.now());
+        return convertToDTO(cartRepository.save(cart));
     }
 
     @Override
     @Transactional
     public void removeItemFromCart( Long productId) {
         User currentUser = userService.getCurrentUser();
-        CartEntity cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
-
-        cart.getItems().removeIf(item -> item.getProduct().getId().equals(productId));
-        cart.setUpdatedAt(LocalDateTime.now());
-        cartRepository.save(cart);
+        cartWriteBuffer.flush(currentUser.getId());
+        // Sin carrito no hay nada que quitar
+        cartRepository.findByUserId(currentUser.getId()).ifPresent(cart -> {
+            cart.getItems().removeIf(item -> item.getProduct().getId().equals(productId));
+            cart.setUpdatedAt(LocalDateTime.now());
+            cartRepository.save(cart);
+        });
     }
 
     @Override
@@ -141,17 +211,18 @@ public class CartServiceImp implements CartService {
     public void clearCart(String email) {
         UserEntity user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        CartEntity cart = cartRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
-
-        cart.getItems().clear();
-        cart.setUpdatedAt(LocalDateTime.now());
-        cartRepository.save(cart);
+        cartWriteBuffer.discard(user.getId());
+        cartRepository.findByUserId(user.getId()).ifPresent(cart -> {
+            cart.getItems().clear();
+            cart.setUpdatedAt(LocalDateTime.now());
+            cartRepository.save(cart);
+        });
     }
     @Override
     @Transactional
     public String initiatePayment() throws MPException, MPApiException {
         User currentUser = userService.getCurrentUser();
+        cartWriteBuffer.flush(currentUser.getId());
         CartEntity cart = cartRepository.findByUserId(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
@@ -159,6 +230,9 @@ public class CartServiceImp implements CartService {
             throw new RuntimeException("Debe seleccionar un método de envío");
         }
 
+        // Iniciar el pago es actividad: la limpieza de carritos abandonados no debe borrarlo antes del webhook
+        cart.setUpdatedAt(LocalDateTime.now());
+
         List<CartItemDTO> items = cart.getItems().stream()
                 .map(this::convertToCartItemDTO)
                 .collect(Collectors.toList());
@@ -178,15 +252,24 @@ public class CartServiceImp implements CartService {
                 .baseCost(shippingCost)
                 .build();
 
-        return mercadoPagoService.createPreference(items, userDTO, shippingCost, shippingDTO.getName());
+        // Se retiene el stock hasta que se cree la orden o venza la preferencia
+        stockReservationService.reserve(currentUser.getId(), cart.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), CartItemEntity::getQuantity, Integer::sum)));
+        try {
+            return mercadoPagoService.createPreference(items, userDTO, shippingCost, shippingDTO.getName());
+        } catch (MPException | MPApiException | RuntimeException e) {
+            stockReservationService.release(currentUser.getId());
+            throw e;
+        }
     }
 
     @Override
     @Transactional
     public CartDTO updateShippingInfo(UpdateShippingRequest request) {
         User currentUser = userService.getCurrentUser();
-        CartEntity cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
+        cartWriteBuffer.flush(currentUser.getId());
+        CartEntity cart = cartRepository.findWithItemsByUserId(currentUser.getId())
+                .orElseGet(() -> createNewCart(currentUser));
 
         // Actualizar método de envío
         if (request.getShippingMethodId() != null) {
@@ -216,11 +299,12 @@ public class CartServiceImp implements CartService {
     @Transactional
     public CheckoutDTO getCheckoutInfo() {
         User currentUser = userService.getCurrentUser();
+        cartWriteBuffer.flush(currentUser.getId());
         UserEntity userEntity = userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        CartEntity cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
+        CartEntity cart = cartRepository.findWithItemsByUserId(currentUser.getId())
+                .orElseGet(() -> createNewCart(currentUser));
 
         // Si el carrito no tiene dirección, usar la del usuario
         if (cart.getShippingAddress() == null) {
@@ -265,49 +349,66 @@ public class CartServiceImp implements CartService {
 
     @Override
     @Transactional
-    public CartDTO reorderFromOrder(Long orderId) {
+    public ReorderResponse reorderFromOrder(Long orderId) {
         User currentUser = userService.getCurrentUser();
 
-        // Busca la orden
-        OrderEntity order = orderRepository.findByIdAndUserId(orderId, currentUser.getId())
+        // Orden, detalles y productos con su stock en una sola consulta
+        OrderEntity order = orderRepository.findWithDetailsByIdAndUserId(orderId, currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("Orden no encontrada"));
 
-        // Limpiar el carrito actual
-        CartEntity cart = cartRepository.findByUserId(currentUser.getId())
-                .orElseGet(() -> {
-                    CartEntity newCart = new CartEntity();
-                    UserEntity userEntity = userRepository.findById(currentUser.getId())
-                            .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-                    newCart.setUser(userEntity);
-                    newCart.setCreatedAt(LocalDateTime.now());
-                    return cartRepository.save(newCart);
-                });
+        // El carrito se reemplaza por la orden: los cambios pendientes se descartan recién con la orden encontrada
+        cartWriteBuffer.discard(currentUser.getId());
 
-        // Limpiar items actuales del carrito
-        cart.getItems().clear();
+        CartEntity cart = cartRepository.findWithItemsByUserId(currentUser.getId())
+                .orElseGet(() -> createNewCart(currentUser));
 
-        // Agregar items de la orden anterior
-        for (OrderDetailEntity detail : order.getDetails()) {
-            // Verificar stock
-            Integer currentStock = getCurrentStock(detail.getProduct().getId());
-            if (currentStock < detail.getQuantity()) {
-                throw new RuntimeException("Stock insuficiente para " + detail.getProduct().getName() +
-                        ". Disponible: " + currentStock + ", Solicitado: " + detail.getQuantity());
-            }
+        // Cantidad pedida por producto; una orden puede repetir el mismo producto en varias líneas
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        Map<Long, ProductEntity> products = new LinkedHashMap<>();
+        order.getDetails().stream()
+                .sorted(Comparator.comparing(OrderDetailEntity::getId))
+                .forEach(detail -> {
+                    products.putIfAbsent(detail.getProduct().getId(), detail.getProduct());
+                    requested.merge(detail.getProduct().getId(), detail.getQuantity(), Integer::sum);
+                });
 
+        // Se ajusta cada cantidad al stock disponible en lugar de rechazar toda la orden
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        List<ReorderResponse.ReorderLine> lines = new ArrayList<>(requested.size());
+        requested.forEach((productId, quantity) -> {
+            ProductEntity product = products.get(productId);
+            int available = product.isActive() ? Math.max(product.getStock(), 0) : 0;
+            int added = Math.min(quantity, available);
+            if (added > 0) {
+                quantities.put(productId, added);
+            }
+            lines.add(new ReorderResponse.ReorderLine(productId, product.getName(), quantity, added, added < quantity));
+        });
+
+        // El carrito se reemplaza por el contenido de la orden: se reutilizan los ítems existentes
+        // del mismo producto y el resto se inserta en batch
+        cart.getItems().removeIf(item -> !quantities.containsKey(item.getProduct().getId()));
+        for (CartItemEntity item : cart.getItems()) {
+            item.setQuantity(quantities.remove(item.getProduct().getId()));
+        }
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
             CartItemEntity newItem = new CartItemEntity();
             newItem.setCart(cart);
-            newItem.setProduct(detail.getProduct());
-            newItem.setQuantity(detail.getQuantity());
+            newItem.setProduct(products.get(entry.getKey()));
+            newItem.setQuantity(entry.getValue());
             cart.getItems().add(newItem);
         }
 
         cart.setUpdatedAt(LocalDateTime.now());
         cart = cartRepository.save(cart);
 
-        return convertToDTO(cart);
+        return ReorderResponse.builder()
+                .cart(convertToDTO(cart))
+                .lines(lines)
+                .build();
     }
 
+    // Carrito nuevo sin persistir; se inserta junto con sus ítems en el save de la operación que lo modifica
     private CartEntity createNewCart(User user) {
         UserEntity userEntity = userRepository.findById(user.getId())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -320,7 +421,7 @@ public class CartServiceImp implements CartService {
         newCart.setShippingAddress(userEntity.getAddress());
         newCart.setShippingCity(userEntity.getCity());
 
-        return cartRepository.save(newCart);
+        return newCart;
     }
 
     private UserDTO convertToUserDTO(User user) {
@@ -348,7 +449,6 @@ public class CartServiceImp implements CartService {
                 .map(item -> {
                     String firstImageUrl = item.getProduct().getImageUrls().isEmpty() ?
                             null : item.getProduct().getImageUrls().get(0);
-                    Integer currentStock = getCurrentStock(item.getProduct().getId());
                     return CartItemDTO.builder()
                             .id(item.getId())
                             .productId(item.getProduct().getId())
@@ -358,7 +458,7 @@ public class CartServiceImp implements CartService {
                             .quantity(item.getQuantity())
                             .subtotal(item.getProduct().getPrice()
                                     .multiply(BigDecimal.valueOf(item.getQuantity())))
-                            .availableStock(currentStock)
+                            .availableStock(item.getProduct().getStock())
                             .build();
                 })
                 .collect(Collectors.toList());
@@ -411,10 +511,4 @@ public class CartServiceImp implements CartService {
                 .shippingAddress(addressDTO)
                 .build();
     }
-
-    private Integer getCurrentStock(Long productId) {
-        return productRepository.findById(productId)
-                .map(ProductEntity::getStock)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-    }
 }
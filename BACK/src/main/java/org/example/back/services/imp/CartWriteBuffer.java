@@ -0,0 +1,240 @@
+package org.example.back.services.imp;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.back.dtos.CartDTO;
+import org.example.back.dtos.CartItemDTO;
+import org.example.back.repositories.CartRepository;
+import org.example.back.services.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Estado en memoria de los carritos con cambios de cantidad pendientes (write-behind).
+ * Cada clic en +/- se valida contra el stock y se aplica sobre una copia del carrito en memoria;
+ * la escritura en cart/cart_item se hace una sola vez cuando el usuario deja de modificar el carrito
+ * durante el período de espera, antes de cualquier otra operación sobre su carrito o al apagar la aplicación.
+ * Los cambios pendientes solo se descartan cuando la transacción que los escribió confirmó: si la escritura
+ * falla o se revierte, quedan en memoria y se reintentan.
+ */
+@Component
+@Slf4j
+public class CartWriteBuffer {
+
+    private final CartRepository cartRepository;
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${cart.write-behind.quiet-period-ms:2000}")
+    private long quietPeriodMillis;
+
+    private final Map<Long, PendingCart> pendingCarts = new ConcurrentHashMap<>();
+
+    public CartWriteBuffer(CartRepository cartRepository, ProductService productService,
+                           PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.productService = productService;
+        // REQUIRED: desde CartServiceImp se escribe en la transacción del llamador (una sola conexión por request);
+        // desde la tarea programada o al apagar, en una transacción propia
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Aplica el cambio de cantidad en memoria y devuelve el carrito resultante.
+     * loader se usa solo para el primer cambio de una ráfaga, cuando el carrito todavía no está en memoria.
+     */
+    public CartDTO updateQuantity(Long userId, Long productId, Integer quantity, Supplier<CartDTO> loader) {
+        while (true) {
+            PendingCart pending = pendingCarts.get(userId);
+            if (pending == null) {
+                // La carga se hace fuera del mapa para no bloquearlo mientras se consulta la base
+                PendingCart loaded = new PendingCart(loader.get());
+                pending = pendingCarts.putIfAbsent(userId, loaded);
+                if (pending == null) {
+                    pending = loaded;
+                }
+            }
+            synchronized (pending) {
+                // Se escribió a la base mientras se esperaba el lock: se vuelve a cargar desde la base
+                if (pending.flushed) {
+                    continue;
+                }
+
+                CartItemDTO item = pending.cart.getItems().stream()
+                        .filter(i -> i.getProductId().equals(productId))
+                        .findFirst()
+                        .orElseThrow(() -> new RuntimeException("Producto no encontrado en el carrito"));
+
+                if (quantity <= 0) {
+                    pending.cart.getItems().remove(item);
+                    pending.quantities.put(productId, 0);
+                } else {
+                    // El stock sale del cache de productos, que se invalida con cada cambio de stock
+                    Integer currentStock = productService.getProductById(productId).getStock();
+                    if (currentStock < quantity) {
+                        throw new RuntimeException("Stock insuficiente");
+                    }
+                    item.setQuantity(quantity);
+                    item.setAvailableStock(currentStock);
+                    item.setSubtotal(item.getPrice().multiply(BigDecimal.valueOf(quantity)));
+                    pending.quantities.put(productId, quantity);
+                }
+
+                BigDecimal subtotal = pending.cart.getItems().stream()
+                        .map(CartItemDTO::getSubtotal)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                pending.cart.setSubtotal(subtotal);
+                pending.cart.setTotal(subtotal.add(pending.cart.getShippingCost()));
+                pending.lastChange = System.currentTimeMillis();
+
+                return copyOf(pending.cart);
+            }
+        }
+    }
+
+    // Debe llamarse antes de leer o modificar el carrito del usuario por cualquier otro camino, dentro de
+    // una transacción de escritura. Si la escritura falla la excepción llega al llamador y los cambios siguen pendientes
+    public void flush(Long userId) {
+        PendingCart pending = pendingCarts.get(userId);
+        if (pending != null) {
+            write(userId, pending);
+        }
+    }
+
+    // Para cuando el carrito se vacía: los cambios pendientes ya no tienen sentido
+    public void discard(Long userId) {
+        PendingCart pending = pendingCarts.get(userId);
+        if (pending != null) {
+            synchronized (pending) {
+                pending.flushed = true;
+                pendingCarts.remove(userId, pending);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:500}")
+    public void flushIdleCarts() {
+        long threshold = System.currentTimeMillis() - quietPeriodMillis;
+        pendingCarts.forEach((userId, pending) -> {
+            if (pending.lastChange <= threshold) {
+                writeInBackground(userId, pending);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        pendingCarts.forEach(this::writeInBackground);
+    }
+
+    private void writeInBackground(Long userId, PendingCart pending) {
+        try {
+            write(userId, pending);
+        } catch (RuntimeException e) {
+            // Los cambios siguen pendientes; se reintenta después de otro período de espera
+            log.warn("Could not write pending cart changes for user {}, will retry", userId, e);
+            pending.lastChange = System.currentTimeMillis();
+        }
+    }
+
+    private void write(Long userId, PendingCart pending) {
+        synchronized (pending) {
+            if (pending.flushed) {
+                return;
+            }
+            Map<Long, Integer> written = new HashMap<>(pending.quantities);
+            if (!written.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> applyQuantities(userId, written));
+            }
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // Escrito en la transacción del llamador: recién es definitivo cuando esta confirma
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        confirm(userId, pending, written);
+                    }
+                });
+            } else {
+                confirm(userId, pending, written);
+            }
+        }
+    }
+
+    // Quita lo que ya quedó en la base; si hubo cambios nuevos mientras tanto, esos siguen pendientes
+    private void confirm(Long userId, PendingCart pending, Map<Long, Integer> written) {
+        synchronized (pending) {
+            pending.quantities.entrySet().removeIf(entry -> entry.getValue().equals(written.get(entry.getKey())));
+            if (pending.quantities.isEmpty()) {
+                pending.flushed = true;
+                pendingCarts.remove(userId, pending);
+            }
+        }
+    }
+
+    private void applyQuantities(Long userId, Map<Long, Integer> quantities) {
+        cartRepository.findWithItemsByUserId(userId).ifPresent(cart -> {
+            cart.getItems().removeIf(item -> Integer.valueOf(0).equals(quantities.get(item.getProduct().getId())));
+            cart.getItems().forEach(item -> {
+                Integer quantity = quantities.get(item.getProduct().getId());
+                if (quantity != null) {
+                    item.setQuantity(quantity);
+                }
+            });
+            cart.setUpdatedAt(LocalDateTime.now());
+            cartRepository.save(cart);
+        });
+    }
+
+    private CartDTO copyOf(CartDTO cart) {
+        List<CartItemDTO> items = new ArrayList<>(cart.getItems().size());
+        for (CartItemDTO item : cart.getItems()) {
+            items.add(CartItemDTO.builder()
+                    .id(item.getId())
+                    .productId(item.getProductId())
+                    .productName(item.getProductName())
+                    .imageUrls(item.getImageUrls())
+                    .price(item.getPrice())
+                    .quantity(item.getQuantity())
+                    .subtotal(item.getSubtotal())
+                    .availableStock(item.getAvailableStock())
+                    .build());
+        }
+        return CartDTO.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .items(items)
+                .subtotal(cart.getSubtotal())
+                .shippingCost(cart.getShippingCost())
+                .total(cart.getTotal())
+                .selectedShippingId(cart.getSelectedShippingId())
+                .selectedShipping(cart.getSelectedShipping())
+                .shippingAddress(cart.getShippingAddress())
+                .build();
+    }
+
+    private static class PendingCart {
+        private final CartDTO cart;
+        private final Map<Long, Integer> quantities = new LinkedHashMap<>();
+        private volatile long lastChange = System.currentTimeMillis();
+        private boolean flushed;
+
+        private PendingCart(CartDTO cart) {
+            this.cart = cart;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.back.services.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.example.back.configs.CacheConfig;
+import org.example.back.events.BrandChangedEvent;
+import org.example.back.events.ProductChangedEvent;
+import org.example.back.models.Product;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    // Se ejecuta después del commit para no volver a cachear datos que todavía no son visibles,
+    // y antes de que CatalogVersionServiceImp publique el ETag nuevo
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        Cache<Object, Object> products = nativeCache(CacheConfig.PRODUCTS);
+        products.invalidateAll(event.getProductIds());
+
+        if (event.isListingChanged()) {
+            // Cambió la composición de los listados: las páginas se desplazan y las marcas/categorías afectadas quedan obsoletas
+            nativeCache(CacheConfig.PRODUCT_PAGES).invalidateAll();
+            nativeCache(CacheConfig.PRODUCTS_BY_BRAND).invalidateAll(event.getBrandIds());
+            nativeCache(CacheConfig.PRODUCTS_BY_CATEGORY).invalidateAll(event.getCategoryIds());
+        }
+
+        // Solo se descartan los listados que contienen alguno de los productos modificados
+        for (String cacheName : CacheConfig.PRODUCT_LISTINGS) {
+            nativeCache(cacheName).asMap().values()
+                    .removeIf(value -> containsAny(value, event.getProductIds()));
+        }
+    }
+
+    // Los productos cacheados incluyen nombre y estado de su marca/categoría; como estos cambios
+    // son poco frecuentes se vacían todos los caches de productos
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onBrandChanged(BrandChangedEvent event) {
+        nativeCache(CacheConfig.PRODUCTS).invalidateAll();
+        for (String cacheName : CacheConfig.PRODUCT_LISTINGS) {
+            nativeCache(cacheName).invalidateAll();
+        }
+    }
+
+    private boolean containsAny(Object listing, Set<Long> productIds) {
+        if (!(listing instanceof Iterable<?> items)) {
+            return false;
+        }
+        for (Object item : items) {
+            if (item instanceof Product product && productIds.contains(product.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
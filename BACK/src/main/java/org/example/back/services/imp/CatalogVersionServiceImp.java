@@ -0,0 +1,72 @@
+package org.example.back.services.imp;
+
+import org.example.back.events.BrandChangedEvent;
+import org.example.back.events.ProductChangedEvent;
+import org.example.back.services.CatalogVersionService;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantiene un número de versión por área del catálogo para generar ETags sin consultar la base.
+ * El prefijo de arranque evita que un ETag emitido antes de un reinicio coincida con datos distintos.
+ * La versión se incrementa en último lugar, después de que los listeners con mayor precedencia vaciaron
+ * los caches y actualizaron las vistas en memoria: así un ETag nuevo nunca acompaña a un cuerpo viejo.
+ */
+@Service
+public class CatalogVersionServiceImp implements CatalogVersionService {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong productsVersion = new AtomicLong();
+    private final AtomicLong brandsVersion = new AtomicLong();
+    private final AtomicLong shippingVersion = new AtomicLong();
+
+    @Override
+    public String getProductsETag() {
+        return eTag("p", productsVersion);
+    }
+
+    @Override
+    public String getBrandsETag() {
+        return eTag("b", brandsVersion);
+    }
+
+    // El árbol de marcas incluye conteos de productos, por eso depende de ambas versiones
+    @Override
+    public String getBrandTreeETag() {
+        return "\"t-" + bootId + "-" + brandsVersion.get() + "." + productsVersion.get() + "\"";
+    }
+
+    @Override
+    public String getShippingETag() {
+        return eTag("s", shippingVersion);
+    }
+
+    @Override
+    public void shippingChanged() {
+        shippingVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        productsVersion.incrementAndGet();
+    }
+
+    // Los listados de productos por marca/categoría dependen de que la marca o categoría esté activa
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onBrandChanged(BrandChangedEvent event) {
+        brandsVersion.incrementAndGet();
+        productsVersion.incrementAndGet();
+    }
+
+    private String eTag(String area, AtomicLong version) {
+        return "\"" + area + "-" + bootId + "-" + version.get() + "\"";
+    }
+}
@@ -64,6 +64,10 @@ public class MercadoPagoServiceImp implements MercadoPagoService {
     @Value("${mercadopago.statement.descriptor}")
     private String statementDescriptor;
 
+    // Las reservas de stock del checkout vencen junto con la preferencia
+    @Value("${mercadopago.preference.expiration-hours:48}")
+    private long preferenceExpirationHours;
+
     private final OrderService orderService;
     private final RestTemplate restTemplate;
     private final UserRepository userRepository;
@@ -195,7 +199,7 @@ public class MercadoPagoServiceImp implements MercadoPagoService {
                 .metadata(additionalInfo)
                 .expires(true)  // Activar expiración
                 .expirationDateFrom(OffsetDateTime.now(ZoneOffset.UTC))  // Fecha de inicio
-                .expirationDateTo(OffsetDateTime.now().plusDays(2))  // Expiración en 2 días
+                .expirationDateTo(OffsetDateTime.now().plusHours(preferenceExpirationHours))  // Expiración en 2 días por defecto
                 .build();
 
         try {
@@ -0,0 +1,24 @@
+package org.example.back.services.imp;
+
+import lombok.RequiredArgsConstructor;
+import org.example.back.configs.CacheConfig;
+import org.example.back.events.OrderChangedEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class OrderCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    // Después del commit, para que una lectura concurrente no vuelva a cachear los valores anteriores
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        cacheManager.getCache(CacheConfig.USER_ORDER_STATISTICS).evict(event.getUserId());
+        // Los totales del listado dependen de estado y fecha de todas las órdenes: se descartan todos
+        cacheManager.getCache(CacheConfig.ORDER_COUNTS).clear();
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.back.services.imp;
+
+import java.util.regex.Pattern;
+
+/**
+ * Decide cómo buscar órdenes según el texto ingresado. Los números y los emails completos se resuelven
+ * con igualdad sobre columnas indexadas; solo el texto libre usa coincidencia parcial (ILIKE con índices trigram).
+ * En las órdenes de un cliente los números también se buscan como parte de la dirección de envío.
+ */
+record OrderSearch(Type type, String term, Long orderId) {
+
+    enum Type { NONE, NUMBER, EMAIL, TEXT }
+
+    private static final Pattern NUMBER = Pattern.compile("#?\\d+");
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    // Long.MAX_VALUE tiene 19 dígitos: con más de 18 el número no puede ser un id de orden
+    private static final int MAX_ID_DIGITS = 18;
+
+    static OrderSearch parse(String query) {
+        String term = query != null ? query.trim() : "";
+        if (term.isEmpty()) {
+            return new OrderSearch(Type.NONE, null, null);
+        }
+        if (NUMBER.matcher(term).matches()) {
+            String digits = term.startsWith("#") ? term.substring(1) : term;
+            Long orderId = digits.length() <= MAX_ID_DIGITS ? Long.valueOf(digits) : null;
+            return new OrderSearch(Type.NUMBER, digits, orderId);
+        }
+        if (EMAIL.matcher(term).matches()) {
+            return new OrderSearch(Type.EMAIL, term.toLowerCase(), null);
+        }
+        return new OrderSearch(Type.TEXT, term, null);
+    }
+
+    // Patrón para ILIKE con los comodines del usuario escapados
+    String pattern() {
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -8,23 +8,40 @@ import org.example.back.dtos.response.OrderResponse;
 import org.example.back.entities.*;
 import org.example.back.enums.MovementType;
 import org.example.back.enums.OrderStatus;
+import org.example.back.events.OrderChangedEvent;
+import org.example.back.events.ProductChangedEvent;
 import org.example.back.models.*;
 import org.example.back.repositories.*;
 import org.example.back.services.CartService;
 import org.example.back.services.OrderService;
+import org.example.back.services.StockReservationService;
 import org.example.back.services.UserService;
+import org.example.back.configs.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,6 +60,10 @@ public class OrderServiceImp implements OrderService {
     private final CartRepository cartRepository;
     private final ShippingService shippingService;
     private final ShipmentRepository shipmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockReservationService stockReservationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
 
     @Override
     public OrderResponse createOrder(OrderRequest orderRequest, String userEmail) {
@@ -53,6 +74,9 @@ public class OrderServiceImp implements OrderService {
         CartEntity cart = cartRepository.findByUserId(userEntity.getId())
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
 
+        // Stock retenido al iniciar el pago; se libera al confirmar esta transacción
+        Map<Long, Integer> reserved = stockReservationService.convert(userEntity.getId());
+
         OrderEntity order = new OrderEntity();
         order.setCustomer(userEntity);
         order.setDate(LocalDateTime.now());
@@ -89,19 +113,35 @@ public class OrderServiceImp implements OrderService {
             order.setShippingCost(BigDecimal.ZERO);
         }
 
+        // Cantidad total por producto (una orden puede repetir el producto en varias líneas), ordenada por id
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderDetailRequest detailRequest : orderRequest.getDetails()) {
+            quantities.merge(detailRequest.getProductId(), detailRequest.getQuantity(), Integer::sum);
+        }
+        Map<Long, ProductEntity> products = productRepository.findByIdIn(quantities.keySet()).stream()
+                .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+
+        // Lo reservado por este usuario ya está garantizado; el resto no puede tomar unidades
+        // reservadas por otros checkouts. Es un chequeo anticipado con mensaje claro: el que vale es
+        // el UPDATE de decrementStock, que vuelve a restar las reservas de forma atómica
+        quantities.forEach((productId, quantity) -> {
+            ProductEntity product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("Producto no encontrado");
+            }
+            int reservedByOthers = stockReservationService.getReservedQuantity(productId)
+                    - reserved.getOrDefault(productId, 0);
+            if (product.getStock() - Math.max(reservedByOthers, 0) < quantity) {
+                throw new RuntimeException("Stock insuficiente para " + product.getName());
+            }
+        });
+
         Set<OrderDetailEntity> details = new HashSet<>();
+        List<ReplenishmentEntity> movements = new ArrayList<>();
         BigDecimal subtotal = BigDecimal.ZERO;
         for (OrderDetailRequest detailRequest : orderRequest.getDetails()) {
             OrderDetailEntity detail = new OrderDetailEntity();
-            ProductEntity product = productRepository.findById(detailRequest.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-
-            // Verificar y actualizar stock
-            if (product.getStock() < detailRequest.getQuantity()) {
-                throw new RuntimeException("Stock insuficiente para " + product.getName());
-            }
-            product.setStock(product.getStock() - detailRequest.getQuantity());
-            productRepository.save(product);
+            ProductEntity product = products.get(detailRequest.getProductId());
 
             // Registro de movimiento de stock
             ReplenishmentEntity replenishment = new ReplenishmentEntity();
@@ -109,7 +149,7 @@ public class OrderServiceImp implements OrderService {
             replenishment.setQuantity(detailRequest.getQuantity());
             replenishment.setDate(LocalDateTime.now());
             replenishment.setMovementType(MovementType.EXPENSE);
-            replenishmentRepository.save(replenishment);
+            movements.add(replenishment);
 
             detail.setOrder(order);
             detail.setProduct(product);
@@ -124,13 +164,65 @@ public class OrderServiceImp implements OrderService {
         order.setSubtotal(subtotal);
         order.setDetails(details);
         OrderEntity savedOrder = orderRepository.save(order);
+        replenishmentRepository.saveAll(movements);
+        eventPublisher.publishEvent(new OrderChangedEvent(userEntity.getId()));
 
         // Limpiar el carrito después de crear la orden
         cartService.clearCart(userEmail);
 
+        // El descuento de stock va al final para que los locks de las filas de productos se mantengan
+        // el menor tiempo posible antes del commit. JdbcTemplate no hace flush de Hibernate: sin este flush
+        // los INSERT de la orden, detalles y movimientos se enviarían en el commit, con los locks ya tomados
+        orderRepository.flush();
+        decrementStock(userEntity.getId(), quantities, products);
+
+        eventPublisher.publishEvent(ProductChangedEvent.dataChanged(details.stream()
+                .map(detail -> detail.getProduct().getId())
+                .collect(Collectors.toSet())));
+
         return convertToOrderResponse(savedOrder);
     }
 
+    // Descuento atómico y condicional en un solo batch: la base evalúa la condición sobre el valor actual
+    // de la fila, así dos webhooks concurrentes no pueden vender la misma unidad. La condición descuenta
+    // además las reservas vigentes de otros usuarios (las de este ya se consumieron en convert), para que
+    // una orden sin reserva no tome unidades retenidas por un checkout que ya está pagando.
+    // Límite: solo se ven las reservas confirmadas; una cuyo checkout todavía no terminó su transacción
+    // solo está en los contadores en memoria y la protege el chequeo anticipado de createOrder.
+    // Las filas se actualizan en orden de id para que dos órdenes con productos en común no se bloqueen mutuamente
+    private void decrementStock(Long userId, Map<Long, Integer> quantities, Map<Long, ProductEntity> products) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] updated = jdbcTemplate.batchUpdate("""
+                UPDATE products p SET stock = stock - ?
+                WHERE p.id = ?
+                AND p.stock - COALESCE((SELECT SUM(r.quantity) FROM stock_reservations r
+                                        WHERE r.product_id = p.id AND r.user_id <> ? AND r.expires_at > ?), 0) >= ?
+                """,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Map.Entry<Long, Integer> line = lines.get(i);
+                        ps.setInt(1, line.getValue());
+                        ps.setLong(2, line.getKey());
+                        ps.setLong(3, userId);
+                        ps.setTimestamp(4, now);
+                        ps.setInt(5, line.getValue());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return lines.size();
+                    }
+                });
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new RuntimeException("Stock insuficiente para " + products.get(lines.get(i).getKey()).getName());
+            }
+        }
+    }
+
     @Override
     public PageResponse<OrderResponse> getUserOrders(
             OrderStatus status,
@@ -144,29 +236,24 @@ public class OrderServiceImp implements OrderService {
         Pageable pageable = PageRequest.of(page, size);
         String statusStr = status != null ? status.name() : null;
 
-        String normalizedSearchQuery = searchQuery != null && !searchQuery.trim().isEmpty()
-                ? searchQuery.trim()
-                : null;
-
-        Page<OrderEntity> orderPage = orderRepository.findUserOrdersByFilters(
-                currentUser.getId(),
-                statusStr,
-                startDate,
-                endDate,
-                normalizedSearchQuery,
-                pageable
-        );
-
-        List<OrderResponse> orders = orderPage.getContent().stream()
-                .map(this::convertToOrderResponse)
-                .collect(Collectors.toList());
+        Long userId = currentUser.getId();
+        OrderSearch search = OrderSearch.parse(searchQuery);
+        Page<Long> orderPage = switch (search.type()) {
+            case NONE -> orderRepository.findUserOrderIdsByFilters(userId, statusStr, startDate, endDate, pageable);
+            case NUMBER -> orderRepository.findUserOrderIdsByNumber(
+                    userId, statusStr, startDate, endDate, search.orderId(), search.term(), search.pattern(), pageable);
+            // El cliente no busca por email: se trata como texto libre
+            case EMAIL, TEXT -> orderRepository.findUserOrderIdsByText(
+                    userId, statusStr, startDate, endDate, search.pattern(), pageable);
+        };
 
         return PageResponse.<OrderResponse>builder()
-                .content(orders)
+                .content(loadOrderResponses(orderPage.getContent()))
                 .pageNumber(orderPage.getNumber())
                 .pageSize(orderPage.getSize())
                 .totalElements(orderPage.getTotalElements())
                 .totalPages(orderPage.getTotalPages())
+                .hasNext(orderPage.hasNext())
                 .build();
     }
 
@@ -177,28 +264,52 @@ public class OrderServiceImp implements OrderService {
             LocalDateTime endDate,
             String searchQuery,
             int page,
-            int size
+            int size,
+            boolean includeTotal
     ) {
         Pageable pageable = PageRequest.of(page, size);
         String statusStr = status != null ? status.name() : null;
 
-        String normalizedSearchQuery = searchQuery != null && !searchQuery.trim().isEmpty()
-                ? searchQuery.trim()
-                : null;
-
-        Page<OrderEntity> orderPage = orderRepository.findOrdersByFilters(statusStr,startDate, endDate, normalizedSearchQuery, pageable);
-
-        List<OrderResponse> orders = orderPage.getContent().stream()
-                .map(this::convertToOrderResponse)
-                .collect(Collectors.toList());
+        OrderSearch search = OrderSearch.parse(searchQuery);
+        Slice<Long> orderPage = switch (search.type()) {
+            case NONE -> orderRepository.findOrderIdsByFilters(statusStr, startDate, endDate, pageable);
+            case NUMBER -> orderRepository.findOrderIdsByNumber(
+                    statusStr, startDate, endDate, search.orderId(), search.term(), pageable);
+            case EMAIL -> orderRepository.findOrderIdsByEmail(statusStr, startDate, endDate, search.term(), pageable);
+            case TEXT -> orderRepository.findOrderIdsByText(statusStr, startDate, endDate, search.pattern(), pageable);
+        };
 
-        return PageResponse.<OrderResponse>builder()
-                .content(orders)
+        PageResponse<OrderResponse> response = PageResponse.<OrderResponse>builder()
+                .content(loadOrderResponses(orderPage.getContent()))
                 .pageNumber(orderPage.getNumber())
                 .pageSize(orderPage.getSize())
-                .totalElements(orderPage.getTotalElements())
-                .totalPages(orderPage.getTotalPages())
+                .hasNext(orderPage.hasNext())
                 .build();
+
+        if (includeTotal) {
+            long total = countOrders(statusStr, startDate, endDate, search);
+            response.setTotalElements(total);
+            response.setTotalPages(size > 0 ? (int) Math.ceil((double) total / size) : 1);
+        }
+        return response;
+    }
+
+    // El conteo exacto recorre todas las órdenes que cumplen el filtro: se cachea por unos segundos para que
+    // paginar no lo repita en cada página. Crear una orden o cambiar su estado vacía el cache (OrderChangedEvent)
+    private long countOrders(String status, LocalDateTime startDate, LocalDateTime endDate, OrderSearch search) {
+        OrderCountKey key = new OrderCountKey(status, startDate, endDate, search.type(), search.term());
+        Cache orderCounts = Objects.requireNonNull(cacheManager.getCache(CacheConfig.ORDER_COUNTS));
+        Long total = orderCounts.get(key, () -> switch (search.type()) {
+            case NONE -> orderRepository.countOrdersByFilters(status, startDate, endDate);
+            case NUMBER -> orderRepository.countOrdersByNumber(status, startDate, endDate, search.orderId(), search.term());
+            case EMAIL -> orderRepository.countOrdersByEmail(status, startDate, endDate, search.term());
+            case TEXT -> orderRepository.countOrdersByText(status, startDate, endDate, search.pattern());
+        });
+        return total != null ? total : 0;
+    }
+
+    private record OrderCountKey(String status, LocalDateTime startDate, LocalDateTime endDate,
+                                 OrderSearch.Type searchType, String term) {
     }
 
     @Override
@@ -210,6 +321,7 @@ public class OrderServiceImp implements OrderService {
 
         order.setStatus(status);
         OrderEntity updatedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(order.getCustomer().getId()));
         return convertToOrderResponse(updatedOrder);
     }
 
@@ -218,28 +330,37 @@ public class OrderServiceImp implements OrderService {
         User currentUser = userService.getCurrentUser();
         Long userId = currentUser.getId();
 
-        Long totalOrders = orderRepository.countByCustomerId(userId);
-        BigDecimal totalSpent = orderRepository.getTotalSpentByCustomer(userId);
-        Long pendingOrders = orderRepository.countByCustomerIdAndStatus(userId, OrderStatus.PENDING);
-        Long completedOrders = orderRepository.countByCustomerIdAndStatus(userId, OrderStatus.DELIVERED);
-        Long inProcessOrders = orderRepository.countByCustomerIdAndStatus(userId, OrderStatus.PROCESSING);
-        Long cancelledOrders = orderRepository.countByCustomerIdAndStatus(userId, OrderStatus.CANCELLED);
-
-        return UserOrderStatisticsDTO.builder()
-                .totalOrders(totalOrders)
-                .totalSpent(totalSpent != null ? totalSpent : BigDecimal.ZERO)
-                .pendingOrders(pendingOrders)
-                .completedOrders(completedOrders)
-                .inProcessOrders(inProcessOrders)
-                .cancelledOrders(cancelledOrders)
-                .build();
+        // Se cachea por usuario y se descarta con OrderChangedEvent al crear una orden o cambiar su estado
+        Cache statistics = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USER_ORDER_STATISTICS));
+        return statistics.get(userId, () -> orderRepository.getUserOrderStatistics(userId));
     }
 
     @Override
     public OrderResponse getOrderById(Long orderId) {
-        OrderEntity order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + orderId));
-        return convertToOrderResponse(order);
+        List<OrderResponse> orders = loadOrderResponses(List.of(orderId));
+        if (orders.isEmpty()) {
+            throw new RuntimeException("Orden no encontrada con ID: " + orderId);
+        }
+        return orders.get(0);
+    }
+
+    // Arma las respuestas de una página con un número fijo de consultas (órdenes con detalles, imágenes
+    // y envíos) sin importar la cantidad de órdenes, respetando el orden de los ids recibidos
+    private List<OrderResponse> loadOrderResponses(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, OrderEntity> orders = orderRepository.findWithDetailsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(OrderEntity::getId, Function.identity()));
+        Map<Long, ShipmentEntity> shipments = shipmentRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.toMap(shipment -> shipment.getOrder().getId(), Function.identity()));
+
+        return orderIds.stream()
+                .map(orders::get)
+                .filter(Objects::nonNull)
+                .map(order -> convertToOrderResponse(order, shipments.get(order.getId())))
+                .collect(Collectors.toList());
     }
 
     private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
@@ -265,6 +386,10 @@ public class OrderServiceImp implements OrderService {
     }
 
     private OrderResponse convertToOrderResponse(OrderEntity order) {
+        return convertToOrderResponse(order, shipmentRepository.findByOrderId(order.getId()).orElse(null));
+    }
+
+    private OrderResponse convertToOrderResponse(OrderEntity order, ShipmentEntity shipment) {
         CustomerInfo customerInfo = null;
         if (order.getCustomer() != null) {
             customerInfo = CustomerInfo.builder()
@@ -309,9 +434,7 @@ public class OrderServiceImp implements OrderService {
 
         // Obtener información de envío si existe
         ShipmentInfo shipmentInfo = null;
-        Optional<ShipmentEntity> shipmentOpt = shipmentRepository.findByOrderId(order.getId());
-        if (shipmentOpt.isPresent()) {
-            ShipmentEntity shipment = shipmentOpt.get();
+        if (shipment != null) {
             shipmentInfo = ShipmentInfo.builder()
                     .shipmentId(shipment.getId())
                     .trackingCode(shipment.getTrackingCode())
@@ -0,0 +1,454 @@
+package org.example.back.services.imp;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.back.dtos.response.BulkImportResponse;
+import org.example.back.entities.BrandEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.events.ProductChangedEvent;
+import org.example.back.models.Product;
+import org.example.back.repositories.BrandRepository;
+import org.example.back.repositories.CategoryRepository;
+import org.example.back.repositories.ProductRepository;
+import org.example.back.services.ProductImportService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Alta y actualización masiva de productos. Marcas, categorías y nombres existentes se cargan una sola vez
+ * para validar en memoria; las filas válidas se escriben en bloques, cada uno en su propia transacción,
+ * y Hibernate agrupa los INSERT/UPDATE en batches JDBC. Una fila con id actualiza ese producto, sin id lo crea.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportServiceImp implements ProductImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    private static final String IMAGE_SEPARATOR = "\\|";
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("name", "description", "price", "stock", "brandid", "categoryid");
+
+    private final ProductRepository productRepository;
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public BulkImportResponse importProducts(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            throw new IllegalArgumentException("Product list cannot be empty");
+        }
+
+        List<ImportRow> rows = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            rows.add(new ImportRow(i + 1, products.get(i), null));
+        }
+        return importRows(rows.iterator());
+    }
+
+    @Override
+    public BulkImportResponse importProductsCsv(InputStream csv) {
+        Reader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        return importRows(new CsvProductIterator(reader));
+    }
+
+    private BulkImportResponse importRows(Iterator<ImportRow> rows) {
+        long start = System.nanoTime();
+        ImportContext context = loadContext();
+        ImportTotals totals = new ImportTotals();
+
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (rows.hasNext()) {
+            ImportRow row = rows.next();
+            totals.received++;
+            if (row.error() != null) {
+                totals.addError(row.rowNumber(), row.error());
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, context, totals);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, context, totals);
+        }
+
+        totals.errors.sort(Comparator.comparingInt(BulkImportResponse.RowError::getRow));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        int written = totals.created + totals.updated;
+        double rowsPerSecond = elapsedMillis == 0 ? written : written * 1000.0 / elapsedMillis;
+        log.info("Product import: {} received, {} created, {} updated, {} failed in {} ms",
+                totals.received, totals.created, totals.updated, totals.failed, elapsedMillis);
+
+        return BulkImportResponse.builder()
+                .received(totals.received)
+                .created(totals.created)
+                .updated(totals.updated)
+                .failed(totals.failed)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(Math.round(rowsPerSecond * 100) / 100.0)
+                .errors(totals.errors)
+                .build();
+    }
+
+    private ImportContext loadContext() {
+        Map<Long, BrandEntity> brands = brandRepository.findAll().stream()
+                .collect(Collectors.toMap(BrandEntity::getId, Function.identity()));
+        Map<Long, CategoryEntity> categories = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(CategoryEntity::getId, Function.identity()));
+        Map<String, Long> productIdsByName = new HashMap<>();
+        for (Object[] row : productRepository.findAllIdsAndNames()) {
+            productIdsByName.put(normalizeName((String) row[1]), (Long) row[0]);
+        }
+        return new ImportContext(brands, categories, productIdsByName);
+    }
+
+    // Si el bloque falla al escribirse o al confirmarse (TransactionSystemException en el commit)
+    // se revierte completo y sus filas se informan como errores; la importación sigue con el bloque siguiente
+    private void writeChunk(List<ImportRow> chunk, ImportContext context, ImportTotals totals) {
+        ChunkResult result = new ChunkResult();
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeChunk(chunk, context, result));
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            log.warn("Product import chunk starting at row {} failed", chunk.get(0).rowNumber(), e);
+            String message = "Chunk could not be written: " + mostSpecificMessage(e);
+            chunk.stream()
+                    .filter(row -> !result.rejected.containsKey(row.rowNumber()))
+                    .forEach(row -> totals.addError(row.rowNumber(), message));
+            result.rejected.forEach(totals::addError);
+            return;
+        }
+
+        totals.created += result.created;
+        totals.updated += result.updated;
+        result.rejected.forEach(totals::addError);
+        context.productIdsByName().putAll(result.names);
+    }
+
+    private void writeChunk(List<ImportRow> chunk, ImportContext context, ChunkResult result) {
+        List<Long> updateIds = chunk.stream()
+                .map(ImportRow::product)
+                .filter(Objects::nonNull)
+                .map(Product::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, ProductEntity> existing = productRepository.findAllById(updateIds).stream()
+                .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> brandIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+
+        for (ImportRow row : chunk) {
+            Product product = row.product();
+            String error = validate(product, context, existing, result.names);
+            if (error != null) {
+                result.rejected.put(row.rowNumber(), error);
+                continue;
+            }
+
+            ProductEntity entity;
+            if (product.getId() == null) {
+                entity = new ProductEntity();
+                entity.setActive(true);
+                entity.setImageUrls(new ArrayList<>());
+            } else {
+                entity = existing.get(product.getId());
+                brandIds.add(entity.getBrand().getId());
+                categoryIds.add(entity.getCategory().getId());
+            }
+
+            entity.setName(product.getName().trim());
+            entity.setDescription(product.getDescription());
+            entity.setPrice(product.getPrice());
+            entity.setStock(product.getStock());
+            entity.setBrand(context.brands().get(product.getBrandId()));
+            entity.setCategory(context.categories().get(product.getCategoryId()));
+            if (product.getImageUrls() != null) {
+                entity.setImageUrls(new ArrayList<>(product.getImageUrls()));
+            }
+
+            if (entity.getId() == null) {
+                entityManager.persist(entity);
+                result.created++;
+            } else {
+                result.updated++;
+            }
+
+            productIds.add(entity.getId());
+            brandIds.add(product.getBrandId());
+            categoryIds.add(product.getCategoryId());
+            result.names.put(normalizeName(entity.getName()), entity.getId());
+        }
+
+        // Un flush por bloque: Hibernate envía los INSERT/UPDATE agrupados según hibernate.jdbc.batch_size
+        entityManager.flush();
+        entityManager.clear();
+
+        if (!productIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.listingChanged(productIds, brandIds, categoryIds));
+        }
+    }
+
+    private String validate(Product product, ImportContext context, Map<Long, ProductEntity> existing,
+                            Map<String, Long> chunkNames) {
+        if (product == null) {
+            return "Product cannot be null";
+        }
+        if (product.getId() != null && !existing.containsKey(product.getId())) {
+            return "Product not found with ID: " + product.getId();
+        }
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "Product name cannot be empty";
+        }
+        if (product.getName().trim().length() > MAX_TEXT_LENGTH) {
+            return "Product name cannot exceed " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (product.getDescription() == null) {
+            return "Product description cannot be null";
+        }
+        if (product.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "Product description cannot exceed " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (product.getPrice() == null || product.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Price must be greater than zero";
+        }
+        if (product.getPrice().compareTo(MAX_PRICE) > 0) {
+            return "Price cannot exceed " + MAX_PRICE;
+        }
+        if (product.getStock() == null || product.getStock() < 0) {
+            return "Stock cannot be negative";
+        }
+        if (product.getImageUrls() != null
+                && product.getImageUrls().stream().anyMatch(url -> url == null || url.length() > MAX_TEXT_LENGTH)) {
+            return "Image URLs cannot be null or exceed " + MAX_TEXT_LENGTH + " characters";
+        }
+
+        BrandEntity brand = product.getBrandId() == null ? null : context.brands().get(product.getBrandId());
+        if (brand == null) {
+            return "Brand not found with ID: " + product.getBrandId();
+        }
+        CategoryEntity category = product.getCategoryId() == null ? null : context.categories().get(product.getCategoryId());
+        if (category == null) {
+            return "Category not found with ID: " + product.getCategoryId();
+        }
+        if (!category.getBrand().getId().equals(brand.getId())) {
+            return "Category " + category.getId() + " does not belong to brand " + brand.getId();
+        }
+
+        String name = normalizeName(product.getName());
+        Long owner = chunkNames.containsKey(name) ? chunkNames.get(name) : context.productIdsByName().get(name);
+        if (owner != null && !owner.equals(product.getId())) {
+            return "Product with the same name already exists";
+        }
+        return null;
+    }
+
+    private String normalizeName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String mostSpecificMessage(Exception e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private record ImportRow(int rowNumber, Product product, String error) {
+    }
+
+    private record ImportContext(Map<Long, BrandEntity> brands, Map<Long, CategoryEntity> categories,
+                                 Map<String, Long> productIdsByName) {
+    }
+
+    private static class ImportTotals {
+        private int received;
+        private int created;
+        private int updated;
+        private int failed;
+        private final List<BulkImportResponse.RowError> errors = new ArrayList<>();
+
+        private void addError(int row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BulkImportResponse.RowError(row, message));
+            }
+        }
+    }
+
+    // Resultado de un bloque; solo se suma a los totales si la transacción confirmó
+    private static class ChunkResult {
+        private int created;
+        private int updated;
+        private final Map<Integer, String> rejected = new LinkedHashMap<>();
+        private final Map<String, Long> names = new HashMap<>();
+    }
+
+    /**
+     * Lee el CSV registro por registro sin cargarlo completo en memoria. La primera línea es el encabezado
+     * (name, description, price, stock, brandId, categoryId y opcionalmente id e imageUrls separadas por "|").
+     * Admite campos entre comillas con comas, saltos de línea y comillas dobles escapadas.
+     */
+    private static class CsvProductIterator implements Iterator<ImportRow> {
+
+        private final Reader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private List<String> nextRecord;
+        private int rowNumber;
+
+        private CsvProductIterator(Reader reader) {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file cannot be empty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String column : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(column)) {
+                    throw new IllegalArgumentException("CSV header is missing column: " + column);
+                }
+            }
+            nextRecord = readRecord();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextRecord != null;
+        }
+
+        @Override
+        public ImportRow next() {
+            if (nextRecord == null) {
+                throw new NoSuchElementException();
+            }
+            List<String> record = nextRecord;
+            nextRecord = readRecord();
+            rowNumber++;
+            try {
+                return new ImportRow(rowNumber, toProduct(record), null);
+            } catch (NumberFormatException e) {
+                return new ImportRow(rowNumber, null, "Invalid number: " + e.getMessage());
+            }
+        }
+
+        private Product toProduct(List<String> record) {
+            String imageUrls = value(record, "imageurls");
+            String id = value(record, "id");
+            String price = value(record, "price");
+            String stock = value(record, "stock");
+            String brandId = value(record, "brandid");
+            String categoryId = value(record, "categoryid");
+
+            return Product.builder()
+                    .id(id == null ? null : Long.valueOf(id))
+                    .name(value(record, "name"))
+                    .description(value(record, "description"))
+                    .price(price == null ? null : new BigDecimal(price))
+                    .stock(stock == null ? null : Integer.valueOf(stock))
+                    .brandId(brandId == null ? null : Long.valueOf(brandId))
+                    .categoryId(categoryId == null ? null : Long.valueOf(categoryId))
+                    .imageUrls(imageUrls == null ? null : Arrays.stream(imageUrls.split(IMAGE_SEPARATOR))
+                            .map(String::trim)
+                            .filter(url -> !url.isEmpty())
+                            .toList())
+                    .build();
+        }
+
+        // Las celdas vacías se tratan como ausentes; la descripción vacía sigue siendo válida
+        private String value(List<String> record, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            if (value.isEmpty()) {
+                return "description".equals(column) ? "" : null;
+            }
+            return value;
+        }
+
+        private List<String> readRecord() {
+            try {
+                List<String> fields = new ArrayList<>();
+                StringBuilder field = new StringBuilder();
+                boolean quoted = false;
+                boolean any = false;
+                int c;
+                while ((c = reader.read()) != -1) {
+                    any = true;
+                    char ch = (char) c;
+                    if (quoted) {
+                        if (ch == '"') {
+                            reader.mark(1);
+                            int peek = reader.read();
+                            if (peek == '"') {
+                                field.append('"');
+                            } else {
+                                quoted = false;
+                                if (peek != -1) {
+                                    reader.reset();
+                                }
+                            }
+                        } else {
+                            field.append(ch);
+                        }
+                    } else if (ch == '"') {
+                        quoted = true;
+                    } else if (ch == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else if (ch == '\n') {
+                        fields.add(field.toString());
+                        if (fields.size() == 1 && fields.get(0).isBlank()) {
+                            fields.clear();
+                            field.setLength(0);
+                            continue;
+                        }
+                        return fields;
+                    } else if (ch != '\r') {
+                        field.append(ch);
+                    }
+                }
+                if (!any || (fields.isEmpty() && field.toString().isBlank())) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
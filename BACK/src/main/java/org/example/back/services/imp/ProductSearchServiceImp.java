@@ -0,0 +1,276 @@
+package org.example.back.services.imp;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.back.entities.ProductEntity;
+import org.example.back.events.BrandChangedEvent;
+import org.example.back.events.ProductChangedEvent;
+import org.example.back.mappers.CatalogMapper;
+import org.example.back.models.Product;
+import org.example.back.repositories.ProductRepository;
+import org.example.back.services.ProductSearchService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Índice invertido en memoria sobre nombre, descripción, marca y categoría de los productos activos.
+ * Cada término de la consulta se compara por coincidencia exacta, por prefijo y por similitud de
+ * trigramas (para tolerar errores de tipeo). Un producto debe coincidir con todos los términos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchServiceImp implements ProductSearchService {
+
+    private static final int MAX_LIMIT = 100;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final double MIN_SIMILARITY = 0.3;
+    private static final double EXACT_SCORE = 3.0;
+    private static final double PREFIX_SCORE = 2.0;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final ProductRepository productRepository;
+    private final CatalogMapper catalogMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> trigramIndex = new HashMap<>();
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        Set<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : queryTerms) {
+                // Desde el segundo término solo se puntúan los candidatos que ya coincidieron con los anteriores
+                Map<Long, Double> termScores = matchTerm(term, scores != null ? scores.keySet() : null);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return topResults(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        List<ProductEntity> entities = productRepository.findByActiveTrue();
+
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            trigramIndex.clear();
+            entities.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built with {} products", entities.size());
+    }
+
+    // /products/search usa el ETag de productos: el índice se actualiza antes de que cambie la versión
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<ProductEntity> entities = productRepository.findByIdIn(event.getProductIds());
+
+        lock.writeLock().lock();
+        try {
+            event.getProductIds().forEach(this::remove);
+            entities.stream()
+                    .filter(ProductEntity::isActive)
+                    .forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Renombrar una marca o categoría cambia los términos de todos sus productos: se reindexan
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        List<ProductEntity> entities = event.getCategoryId() != null
+                ? productRepository.findByCategoryIdAndActiveTrue(event.getCategoryId(), Sort.unsorted())
+                : productRepository.findByBrandIdAndActiveTrue(event.getBrandId(), Sort.unsorted());
+
+        lock.writeLock().lock();
+        try {
+            List<Long> affected = documents.entrySet().stream()
+                    .filter(entry -> event.getCategoryId() != null
+                            ? event.getCategoryId().equals(entry.getValue().categoryId())
+                            : event.getBrandId().equals(entry.getValue().brandId()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            affected.forEach(this::remove);
+            entities.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Selección de los mejores resultados con un heap acotado: no se ordenan todas las coincidencias
+    private List<Product> topResults(Map<Long, Double> scores, int limit) {
+        Comparator<ScoredProduct> ranking = Comparator.comparingDouble(ScoredProduct::score).reversed()
+                .thenComparing(scored -> scored.product().getName());
+        PriorityQueue<ScoredProduct> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+        scores.forEach((id, score) -> {
+            top.add(new ScoredProduct(documents.get(id).product(), score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        List<ScoredProduct> result = new ArrayList<>(top);
+        result.sort(ranking);
+        return result.stream().map(scored -> scored.product().copy()).collect(Collectors.toList());
+    }
+
+    private Map<Long, Double> matchTerm(String term, Set<Long> candidates) {
+        Map<Long, Double> result = new HashMap<>();
+        addPostings(result, postings.get(term), EXACT_SCORE, candidates);
+
+        if (term.length() >= MIN_PREFIX_LENGTH) {
+            postings.subMap(term, false, term + Character.MAX_VALUE, false).values()
+                    .forEach(ids -> addPostings(result, ids, PREFIX_SCORE, candidates));
+        }
+
+        if (term.length() >= MIN_FUZZY_LENGTH) {
+            Set<String> queryTrigrams = trigrams(term);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (String candidate : trigramIndex.getOrDefault(trigram, Set.of())) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+            shared.forEach((candidate, common) -> {
+                int union = queryTrigrams.size() + trigrams(candidate).size() - common;
+                double similarity = (double) common / union;
+                if (similarity >= MIN_SIMILARITY) {
+                    addPostings(result, postings.get(candidate), similarity, candidates);
+                }
+            });
+        }
+        return result;
+    }
+
+    private void addPostings(Map<Long, Double> result, Set<Long> ids, double score, Set<Long> candidates) {
+        if (ids == null) {
+            return;
+        }
+        if (candidates != null && candidates.size() < ids.size()) {
+            candidates.stream()
+                    .filter(ids::contains)
+                    .forEach(id -> result.merge(id, score, Math::max));
+        } else {
+            ids.stream()
+                    .filter(id -> candidates == null || candidates.contains(id))
+                    .forEach(id -> result.merge(id, score, Math::max));
+        }
+    }
+
+    private void index(ProductEntity entity) {
+        Set<String> terms = new HashSet<>();
+        terms.addAll(tokenize(entity.getName()));
+        terms.addAll(tokenize(entity.getDescription()));
+        terms.addAll(tokenize(entity.getBrand() != null ? entity.getBrand().getName() : null));
+        terms.addAll(tokenize(entity.getCategory() != null ? entity.getCategory().getName() : null));
+
+        Long brandId = entity.getBrand() != null ? entity.getBrand().getId() : null;
+        Long categoryId = entity.getCategory() != null ? entity.getCategory().getId() : null;
+        documents.put(entity.getId(), new IndexedProduct(catalogMapper.toProduct(entity), brandId, categoryId, terms));
+        for (String term : terms) {
+            Set<Long> ids = postings.computeIfAbsent(term, key -> new HashSet<>());
+            if (ids.isEmpty()) {
+                trigrams(term).forEach(trigram -> trigramIndex.computeIfAbsent(trigram, key -> new HashSet<>()).add(term));
+            }
+            ids.add(entity.getId());
+        }
+    }
+
+    private void remove(Long productId) {
+        IndexedProduct document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null && ids.remove(productId) && ids.isEmpty()) {
+                postings.remove(term);
+                trigrams(term).forEach(trigram -> {
+                    Set<String> terms = trigramIndex.get(trigram);
+                    if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                        trigramIndex.remove(trigram);
+                    }
+                });
+            }
+        }
+    }
+
+    private Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    // Trigramas del término con un espacio de relleno a cada lado, para que inicio y fin también pesen
+    private Set<String> trigrams(String term) {
+        String padded = " " + term + " ";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private record ScoredProduct(Product product, double score) {
+    }
+
+    private record IndexedProduct(Product product, Long brandId, Long categoryId, Set<String> terms) {
+    }
+}
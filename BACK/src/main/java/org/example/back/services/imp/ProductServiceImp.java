@@ -1,12 +1,26 @@
 package org.example.back.services.imp;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.example.back.configs.CacheConfig;
+import org.example.back.dtos.ProductCardDTO;
+import org.example.back.dtos.request.BulkAdjustmentRequest;
+import org.example.back.dtos.response.BulkAdjustmentResponse;
+import org.example.back.dtos.response.CursorPageResponse;
 import org.example.back.entities.BrandEntity;
 import org.example.back.entities.CategoryEntity;
 import org.example.back.entities.ProductEntity;
+import org.example.back.enums.MovementType;
+import org.example.back.enums.PriceAdjustmentType;
+import org.example.back.events.ProductChangedEvent;
+import org.example.back.mappers.CatalogMapper;
 import org.example.back.models.Product;
 import org.example.back.repositories.BrandRepository;
 import org.example.back.repositories.CategoryRepository;
@@ -14,25 +28,49 @@ import org.example.back.repositories.ProductRepository;
 import org.example.back.services.ProductService;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ProductServiceImp implements ProductService{
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int ADJUSTMENT_CHUNK_SIZE = 1000;
+
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private static final BigDecimal MIN_PERCENTAGE = new BigDecimal("-100");
+
+    private static final Sort DEFAULT_SORT = Sort.by("id");
+
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "price");
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private CatalogMapper catalogMapper;
+
     @Autowired
     private CategoryRepository  categoryRepository;
 
     @Autowired
     private BrandRepository brandRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public Product createProduct(Product product) {
         if (product == null) {
@@ -79,9 +117,10 @@ public class ProductServiceImp implements ProductService{
 
         // Guardar la entidad en la base de datos
         ProductEntity savedEntity = productRepository.save(entity);
+        publishListingChanged(savedEntity);
 
         // Mapear la entidad guardada al modelo y devolverlo
-        Product createdProduct = modelMapper.map(savedEntity, Product.class);
+        Product createdProduct = catalogMapper.toProduct(savedEntity);
         return createdProduct;
     }
 
@@ -125,6 +164,12 @@ public class ProductServiceImp implements ProductService{
             throw new IllegalArgumentException("Brand and Category do not match");
         }
 
+        Long previousBrandId = entity.getBrand().getId();
+        Long previousCategoryId = entity.getCategory().getId();
+        // Nombre y precio son criterios de orden de los listados paginados: cambiarlos puede mover el producto de página
+        boolean sortKeysChanged = !entity.getName().equals(product.getName())
+                || entity.getPrice().compareTo(product.getPrice()) != 0;
+
         entity.setName(product.getName());
         entity.setDescription(product.getDescription());
         entity.setPrice(product.getPrice());
@@ -135,7 +180,14 @@ public class ProductServiceImp implements ProductService{
 
         ProductEntity updatedEntity = productRepository.save(entity);
 
-        Product updatedProduct = modelMapper.map(updatedEntity, Product.class);
+        if (previousBrandId.equals(brand.getId()) && previousCategoryId.equals(category.getId()) && !sortKeysChanged) {
+            eventPublisher.publishEvent(ProductChangedEvent.dataChanged(Set.of(productId)));
+        } else {
+            eventPublisher.publishEvent(ProductChangedEvent.listingChanged(Set.of(productId),
+                    List.of(previousBrandId, brand.getId()), List.of(previousCategoryId, category.getId())));
+        }
+
+        Product updatedProduct = catalogMapper.toProduct(updatedEntity);
         return updatedProduct;
     }
 
@@ -143,14 +195,14 @@ public class ProductServiceImp implements ProductService{
     public List<Product> getAllProducts() {
         List<ProductEntity> entities = productRepository.findAll();
         return entities.stream()
-                .map(entity -> modelMapper.map(entity, Product.class))
+                .map(catalogMapper::toProduct)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Page<Product> getAllProducts(Pageable pageable) {
         Page<ProductEntity> entityPage = productRepository.findAll(pageable);
-        return entityPage.map(entity -> modelMapper.map(entity, Product.class));
+        return entityPage.map(catalogMapper::toProduct);
     }
     @Override
     public List<Product> getAllProductsActive() {
@@ -160,11 +212,12 @@ public class ProductServiceImp implements ProductService{
             throw new IllegalArgumentException("No products found active");
         }
         return entities.stream()
-                .map(entity -> modelMapper.map(entity, Product.class))
+                .map(catalogMapper::toProduct)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES, key = "#pageable")
     public Page<Product> getAllProductsActive(Pageable pageable) {
         Page<ProductEntity> entityPage = productRepository.findByActiveTrue(pageable);
 
@@ -172,76 +225,148 @@ public class ProductServiceImp implements ProductService{
             throw new IllegalArgumentException("No products found active");
         }
         
-        return entityPage.map(entity -> modelMapper.map(entity, Product.class));
+        return entityPage.map(catalogMapper::toProduct);
     }
 
     @Override
-public List<Product> getAllProductsByCategory(Long categoryId) {
+    public CursorPageResponse<Product> getAllProductsActive(String cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
 
-    if (categoryId == null) {
-        throw new IllegalArgumentException("Category ID cannot be null");
+        Long lastId = decodeCursor(cursor);
+
+        // Se pide un elemento extra para saber si hay página siguiente sin ejecutar un COUNT
+        List<ProductEntity> entities = productRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(lastId, Limit.of(size + 1));
+        boolean hasNext = entities.size() > size;
+        List<ProductEntity> pageEntities = hasNext ? entities.subList(0, size) : entities;
+
+        List<Product> products = pageEntities.stream()
+                .map(catalogMapper::toProduct)
+                .collect(Collectors.toList());
+
+        return CursorPageResponse.<Product>builder()
+                .content(products)
+                .size(products.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encodeCursor(products.get(products.size() - 1).getId()) : null)
+                .build();
     }
 
-    CategoryEntity categoryEntity = categoryRepository.findById(categoryId)
-            .orElseThrow(() -> new IllegalArgumentException("Category not found"));
+    @Override
+    public Page<ProductCardDTO> getActiveProductCards(Pageable pageable) {
+        Page<ProductCardDTO> cards = productRepository.findActiveProductCards(withStableSort(pageable));
+
+        if (cards.isEmpty()) {
+            throw new IllegalArgumentException("No products found active");
+        }
 
-    if (!categoryEntity.isActive()) {
-        throw new IllegalArgumentException("Category is not active");
+        return cards;
     }
 
-    List<ProductEntity> entities = productRepository.findByCategoryId(categoryId);
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_CATEGORY, key = "#categoryId")
+    public List<Product> getAllProductsByCategory(Long categoryId) {
+        validateActiveCategory(categoryId);
+
+        List<ProductEntity> entities = productRepository.findByCategoryIdAndActiveTrue(categoryId, DEFAULT_SORT);
+
+        if (entities.isEmpty()) {
+            throw new IllegalArgumentException("No active products found for this category");
+        }
 
-    if (entities.isEmpty()) {
-        throw new IllegalArgumentException("No products found for this category");
+        return entities.stream()
+                .map(catalogMapper::toProduct)
+                .collect(Collectors.toList());
     }
 
-    // Filtrar solo los productos activos
-    List<ProductEntity> activeEntities = entities.stream()
-            .filter(ProductEntity::isActive)
-            .collect(Collectors.toList());
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES, key = "{'category', #categoryId, #pageable}")
+    public Page<Product> getAllProductsByCategory(Long categoryId, Pageable pageable) {
+        validateActiveCategory(categoryId);
+
+        Page<ProductEntity> entityPage = productRepository.findByCategoryIdAndActiveTrue(categoryId, withStableSort(pageable));
+
+        if (entityPage.isEmpty()) {
+            throw new IllegalArgumentException("No active products found for this category");
+        }
 
-    if (activeEntities.isEmpty()) {
-        throw new IllegalArgumentException("No active products found for this category");
+        return entityPage.map(catalogMapper::toProduct);
     }
 
-    return activeEntities.stream()
-            .map(entity -> modelMapper.map(entity, Product.class))
-            .collect(Collectors.toList());
-}
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_BRAND, key = "#brandId")
+    public List<Product> getAllProductsByBrand(Long brandId) {
+        validateActiveBrand(brandId);
 
-@Override
-public List<Product> getAllProductsByBrand(Long brandId) {
+        List<ProductEntity> entities = productRepository.findByBrandIdAndActiveTrue(brandId, DEFAULT_SORT);
+
+        if (entities.isEmpty()) {
+            throw new IllegalArgumentException("No active products found for this brand");
+        }
 
-    if (brandId == null) {
-        throw new IllegalArgumentException("Brand ID cannot be null");
+        return entities.stream()
+                .map(catalogMapper::toProduct)
+                .collect(Collectors.toList());
     }
 
-    BrandEntity brandEntity = brandRepository.findById(brandId)
-            .orElseThrow(() -> new IllegalArgumentException("Brand not found"));
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES, key = "{'brand', #brandId, #pageable}")
+    public Page<Product> getAllProductsByBrand(Long brandId, Pageable pageable) {
+        validateActiveBrand(brandId);
 
-    if (!brandEntity.isActive()) {
-        throw new IllegalArgumentException("Brand is not active");
+        Page<ProductEntity> entityPage = productRepository.findByBrandIdAndActiveTrue(brandId, withStableSort(pageable));
+
+        if (entityPage.isEmpty()) {
+            throw new IllegalArgumentException("No active products found for this brand");
+        }
+
+        return entityPage.map(catalogMapper::toProduct);
     }
 
-    List<ProductEntity> entities = productRepository.findByBrandId(brandId);
+    private void validateActiveCategory(Long categoryId) {
+        if (categoryId == null) {
+            throw new IllegalArgumentException("Category ID cannot be null");
+        }
+
+        CategoryEntity categoryEntity = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new IllegalArgumentException("Category not found"));
 
-    if (entities.isEmpty()) {
-        throw new IllegalArgumentException("No products found for this brand");
+        if (!categoryEntity.isActive()) {
+            throw new IllegalArgumentException("Category is not active");
+        }
     }
 
-    // Filtrar solo los productos activos
-    List<ProductEntity> activeEntities = entities.stream()
-            .filter(ProductEntity::isActive)
-            .collect(Collectors.toList());
+    private void validateActiveBrand(Long brandId) {
+        if (brandId == null) {
+            throw new IllegalArgumentException("Brand ID cannot be null");
+        }
+
+        BrandEntity brandEntity = brandRepository.findById(brandId)
+                .orElseThrow(() -> new IllegalArgumentException("Brand not found"));
 
-    if (activeEntities.isEmpty()) {
-        throw new IllegalArgumentException("No active products found for this brand");
+        if (!brandEntity.isActive()) {
+            throw new IllegalArgumentException("Brand is not active");
+        }
     }
 
-    return activeEntities.stream()
-            .map(entity -> modelMapper.map(entity, Product.class))
-            .collect(Collectors.toList());
-}
+    // Valida tamaño y campos de orden, y agrega el id como desempate para que las páginas no se solapen
+    private Pageable withStableSort(Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort products by " + order.getProperty());
+            }
+        }
+
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(DEFAULT_SORT)
+                : pageable.getSort();
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
 
     @Override
     public List<Product> getAllProductsDesactive() {
@@ -252,7 +377,7 @@ public List<Product> getAllProductsByBrand(Long brandId) {
         }
 
         return entities.stream()
-                .map(entity -> modelMapper.map(entity, Product.class))
+                .map(catalogMapper::toProduct)
                 .collect(Collectors.toList());
     }
 
@@ -268,7 +393,8 @@ public List<Product> getAllProductsByBrand(Long brandId) {
         if (entity.isActive()) {
             entity.setActive(false);
             ProductEntity updatedEntity = productRepository.save(entity);
-            return modelMapper.map(updatedEntity, Product.class);
+            publishListingChanged(updatedEntity);
+            return catalogMapper.toProduct(updatedEntity);
         } else {
             throw new IllegalArgumentException("Product is already inactive");
         }
@@ -286,13 +412,15 @@ public List<Product> getAllProductsByBrand(Long brandId) {
         if (!entity.isActive()) {
             entity.setActive(true);
             ProductEntity updatedEntity = productRepository.save(entity);
-            return modelMapper.map(updatedEntity, Product.class);
+            publishListingChanged(updatedEntity);
+            return catalogMapper.toProduct(updatedEntity);
         } else {
             throw new IllegalArgumentException("Product is already active");
         }
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#productId")
     public Product getProductById(Long productId) {
         if (productId == null) {
             throw new IllegalArgumentException("Product ID cannot be null");
@@ -301,7 +429,7 @@ public List<Product> getAllProductsByBrand(Long brandId) {
         ProductEntity entity = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
 
-        return modelMapper.map(entity, Product.class);
+        return catalogMapper.toProduct(entity);
     }
 
     @Override
@@ -313,8 +441,114 @@ public List<Product> getAllProductsByBrand(Long brandId) {
         }
 
         return entities.stream()
-                .map(entity -> modelMapper.map(entity, Product.class))
+                .map(catalogMapper::toProduct)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional
+    public BulkAdjustmentResponse adjustProducts(BulkAdjustmentRequest request) {
+        validateAdjustment(request);
+
+        boolean filterByIds = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        List<Long> ids = productRepository.findIdsForAdjustment(request.getBrandId(), request.getCategoryId(),
+                filterByIds, filterByIds ? request.getProductIds() : List.of(0L));
+
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No products match the given filter");
+        }
+
+        int priceUpdated = 0;
+        int stockUpdated = 0;
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> brandIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+
+        // Se parte la lista de ids para no superar el límite de parámetros por sentencia
+        for (int from = 0; from < ids.size(); from += ADJUSTMENT_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ADJUSTMENT_CHUNK_SIZE, ids.size()));
+
+            if (request.getPriceChange() != null) {
+                for (Object[] row : productRepository.findBrandAndCategoryIds(chunk)) {
+                    brandIds.add((Long) row[0]);
+                    categoryIds.add((Long) row[1]);
+                }
+                priceUpdated += request.getPriceAdjustmentType() == PriceAdjustmentType.PERCENTAGE
+                        ? productRepository.applyPercentageToPrices(chunk, request.getPriceChange(), MAX_PRICE)
+                        : productRepository.addToPrices(chunk, request.getPriceChange(), MAX_PRICE);
+            }
+
+            if (request.getStockChange() != null) {
+                MovementType movementType = request.getStockChange() > 0 ? MovementType.INCOME : MovementType.EXPENSE;
+                stockUpdated += productRepository.adjustStockWithMovements(chunk, request.getStockChange(), now, movementType.name());
+            }
+        }
+
+        // El precio es criterio de orden de los listados paginados: un cambio de precio puede mover productos de página
+        eventPublisher.publishEvent(request.getPriceChange() != null
+                ? ProductChangedEvent.listingChanged(ids, brandIds, categoryIds)
+                : ProductChangedEvent.dataChanged(ids));
+
+        return BulkAdjustmentResponse.builder()
+                .matchedProducts(ids.size())
+                .priceUpdated(priceUpdated)
+                .priceSkipped(request.getPriceChange() == null ? 0 : ids.size() - priceUpdated)
+                .stockUpdated(stockUpdated)
+                .stockSkipped(request.getStockChange() == null ? 0 : ids.size() - stockUpdated)
+                .build();
+    }
+
+    private void validateAdjustment(BulkAdjustmentRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Adjustment cannot be null");
+        }
+
+        if (request.getBrandId() == null && request.getCategoryId() == null
+                && (request.getProductIds() == null || request.getProductIds().isEmpty())) {
+            throw new IllegalArgumentException("At least one filter (brand, category or product IDs) is required");
+        }
+
+        if (request.getPriceChange() == null && request.getStockChange() == null) {
+            throw new IllegalArgumentException("A price or stock change is required");
+        }
+
+        if (request.getPriceChange() != null) {
+            if (request.getPriceAdjustmentType() == null) {
+                throw new IllegalArgumentException("Price adjustment type cannot be null");
+            }
+            if (request.getPriceChange().signum() == 0) {
+                throw new IllegalArgumentException("Price change cannot be zero");
+            }
+            if (request.getPriceAdjustmentType() == PriceAdjustmentType.PERCENTAGE
+                    && request.getPriceChange().compareTo(MIN_PERCENTAGE) <= 0) {
+                throw new IllegalArgumentException("Percentage must be greater than " + MIN_PERCENTAGE);
+            }
+        }
+
+        if (request.getStockChange() != null && request.getStockChange() == 0) {
+            throw new IllegalArgumentException("Stock change cannot be zero");
+        }
+    }
+
+    private String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private void publishListingChanged(ProductEntity entity) {
+        eventPublisher.publishEvent(ProductChangedEvent.listingChanged(Set.of(entity.getId()),
+                Set.of(entity.getBrand().getId()), Set.of(entity.getCategory().getId())));
+    }
+
 }
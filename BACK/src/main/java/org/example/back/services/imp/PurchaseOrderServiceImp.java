@@ -10,10 +10,12 @@ import org.example.back.dtos.response.InvoiceResponse;
 import org.example.back.dtos.response.SimulatedDeliveryResponse;
 import org.example.back.enums.MovementType;
 import org.example.back.enums.OrderStatus;
+import org.example.back.events.ProductChangedEvent;
 import org.example.back.services.PurchaseOrderService;
 
 import org.example.back.models.*;
 import org.example.back.repositories.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,6 +37,7 @@ public class PurchaseOrderServiceImp implements PurchaseOrderService {
     private final InvoiceRepository invoiceRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
     private final ReplenishmentRepository replenishmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final Random random = new Random();
 
     @Override
@@ -160,6 +163,10 @@ public class PurchaseOrderServiceImp implements PurchaseOrderService {
 
         order.setOrderStatus(OrderStatus.COMPLETED);
 
+        eventPublisher.publishEvent(ProductChangedEvent.dataChanged(invoiceDetails.stream()
+                .map(detail -> detail.getProduct().getId())
+                .collect(Collectors.toSet())));
+
         return mapToInvoiceResponse(invoice);
     }
 
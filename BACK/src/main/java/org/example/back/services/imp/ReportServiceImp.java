@@ -5,6 +5,7 @@ import org.example.back.dtos.*;
 import org.example.back.repositories.OrderRepository;
 import org.example.back.repositories.ReportRepository;
 import org.example.back.services.ReportService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -418,4 +419,47 @@ public class ReportServiceImp implements ReportService {
 
         return dto;
     }
+
+    @Override
+    public AbandonedCartReportDTO getAbandonedCartReport(LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+
+        if (limit > 100) {
+            throw new IllegalArgumentException("Limit cannot exceed 100");
+        }
+
+        LocalDate start = startDate.toLocalDate();
+        LocalDate end = endDate.toLocalDate();
+
+        // Se lee de abandoned_cart_summary, que completa el job de limpieza de carritos
+        List<AbandonedCartReportDTO.DailySummary> byDay = reportRepository.getAbandonedCartsByDay(start, end).stream()
+                .map(row -> new AbandonedCartReportDTO.DailySummary(
+                        (LocalDate) row[0],
+                        ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(),
+                        new BigDecimal(row[3].toString())
+                ))
+                .collect(Collectors.toList());
+
+        List<AbandonedCartReportDTO.ProductSummary> topProducts = reportRepository
+                .getTopAbandonedProducts(start, end, PageRequest.of(0, limit)).stream()
+                .map(row -> new AbandonedCartReportDTO.ProductSummary(
+                        ((Number) row[0]).longValue(),
+                        (String) row[1],
+                        ((Number) row[2]).longValue(),
+                        ((Number) row[3]).longValue(),
+                        new BigDecimal(row[4].toString())
+                ))
+                .collect(Collectors.toList());
+
+        return new AbandonedCartReportDTO(
+                byDay.stream().mapToLong(AbandonedCartReportDTO.DailySummary::getCarts).sum(),
+                byDay.stream().mapToLong(AbandonedCartReportDTO.DailySummary::getUnits).sum(),
+                byDay.stream().map(AbandonedCartReportDTO.DailySummary::getValue).reduce(BigDecimal.ZERO, BigDecimal::add),
+                byDay,
+                topProducts
+        );
+    }
 }
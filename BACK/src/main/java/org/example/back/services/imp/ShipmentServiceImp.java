@@ -12,12 +12,14 @@ import org.example.back.entities.ShipmentEntity;
 import org.example.back.entities.ShipmentTrackingEntity;
 import org.example.back.enums.OrderStatus;
 import org.example.back.enums.ShipmentStatus;
+import org.example.back.events.OrderChangedEvent;
 import org.example.back.repositories.ShipmentRepository;
 import org.example.back.repositories.OrderRepository;
 import org.example.back.repositories.ShipmentTrackingRepository;
 import org.example.back.services.MailService;
 import org.example.back.services.OrderService;
 import org.example.back.services.ShipmentService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,6 +39,7 @@ public class ShipmentServiceImp implements ShipmentService {
     private final OrderRepository orderRepository;
     private final MailService mailService;
     private final OrderService orderService;
+    private final ApplicationEventPublisher eventPublisher;
     private static final SecureRandom random = new SecureRandom();
 
     @Override
@@ -100,6 +103,7 @@ public class ShipmentServiceImp implements ShipmentService {
         );
 
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(order.getCustomer().getId()));
 
         log.info("Shipment created: trackingCode={}, orderId={}", trackingCode, order.getId());
 
@@ -226,6 +230,7 @@ public class ShipmentServiceImp implements ShipmentService {
 
         shipment = shipmentRepository.save(shipment);
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(order.getCustomer().getId()));
 
         // Crear entrada de seguimiento
         createTrackingEntry(
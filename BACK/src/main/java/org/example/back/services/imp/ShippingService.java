@@ -1,67 +1,100 @@
 package org.example.back.services.imp;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.example.back.dtos.ShippingDTO;
 import org.example.back.entities.ShippingEntity;
 import org.example.back.repositories.ShippingRepository;
+import org.example.back.services.CatalogVersionService;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Los métodos de envío cambian muy poco, así que se mantienen en memoria como un snapshot inmutable
+ * que se reemplaza completo en cada refresh. El costo se memoriza por (método, zona del código postal)
+ * dentro del snapshot, de modo que un refresh también descarta los costos calculados.
+ * Los DTOs del snapshot nunca salen del servicio: cada lectura devuelve una copia.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ShippingService implements org.example.back.services.ShippingService {
 
     private final ShippingRepository shippingRepository;
+    private final CatalogVersionService catalogVersionService;
+
+    private volatile Registry registry;
 
     @Override
     public List<ShippingDTO> getAllActiveShippingMethods() {
-        return shippingRepository.findByActiveTrue()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-
+        return registry().activeMethods().stream()
+                .map(this::copy)
+                .toList();
     }
 
     @Override
     public ShippingDTO getShippingById(Long id) {
-        ShippingEntity entity = shippingRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Shipping method not found"));
-        return convertToDTO(entity);
+        ShippingDTO shipping = registry().methods().get(id);
+        if (shipping == null) {
+            throw new RuntimeException("Shipping method not found");
+        }
+        return copy(shipping);
     }
 
     @Override
     public BigDecimal calculateShippingCost(Long shippingId, String postalCode) {
-        ShippingEntity shipping = shippingRepository.findById(shippingId)
-                .orElseThrow(() -> new RuntimeException("Shipping method not found"));
-
-        // Si es retiro local (LOCAL_PICKUP), el costo es 0
-        if ("LOCAL_PICKUP".equals(shipping.getName())) {
-            return BigDecimal.ZERO;
+        Registry current = registry();
+        ShippingDTO shipping = current.methods().get(shippingId);
+        if (shipping == null) {
+            throw new RuntimeException("Shipping method not found");
         }
 
-        BigDecimal baseCost = shipping.getBaseCost();
+        Zone zone = Boolean.TRUE.equals(shipping.getRequiresPostalCode()) && postalCode != null
+                ? Zone.of(postalCode)
+                : Zone.NONE;
+        return current.costs().computeIfAbsent(new CostKey(shippingId, zone), key -> calculateCost(shipping, zone));
+    }
 
-        // Aquí puedes agregar lógica adicional para calcular costos
-        // según código postal, distancia, etc.
-        if (shipping.getRequiresPostalCode() && postalCode != null) {
-            baseCost = calculateCostByPostalCode(shipping, postalCode);
-        }
+    @Override
+    public synchronized void refreshShippingMethods() {
+        Map<Long, ShippingDTO> methods = shippingRepository.findAll().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toUnmodifiableMap(ShippingDTO::getId, Function.identity()));
+        List<ShippingDTO> activeMethods = shippingRepository.findByActiveTrue().stream()
+                .map(entity -> methods.get(entity.getId()))
+                .toList();
 
-        return baseCost;
+        registry = new Registry(methods, activeMethods, new ConcurrentHashMap<>());
+        catalogVersionService.shippingChanged();
+        log.info("Shipping registry loaded with {} methods ({} active)", methods.size(), activeMethods.size());
     }
 
-    private BigDecimal calculateCostByPostalCode(ShippingEntity shipping, String postalCode) {
-        // Lógica para calcular costo según código postal
-        // Por ejemplo, si es CABA (códigos que empiezan con C o 1)
-        if (postalCode.startsWith("C") || postalCode.startsWith("1")) {
-            return shipping.getBaseCost();
+    private Registry registry() {
+        Registry current = registry;
+        if (current == null) {
+            refreshShippingMethods();
+            current = registry;
         }
+        return current;
+    }
 
-        // Para otras zonas, agregar un 30% al costo base
-        return shipping.getBaseCost().multiply(new BigDecimal("1.30"));
+    private BigDecimal calculateCost(ShippingDTO shipping, Zone zone) {
+        // Si es retiro local (LOCAL_PICKUP), el costo es 0
+        if ("LOCAL_PICKUP".equals(shipping.getName())) {
+            return BigDecimal.ZERO;
+        }
+
+        // Para zonas fuera de CABA, agregar un 30% al costo base
+        if (zone == Zone.INTERIOR) {
+            return shipping.getBaseCost().multiply(new BigDecimal("1.30"));
+        }
+        return shipping.getBaseCost();
     }
 
     private ShippingDTO convertToDTO(ShippingEntity entity) {
@@ -75,4 +108,34 @@ public class ShippingService implements org.example.back.services.ShippingServic
                 .requiresPostalCode(entity.getRequiresPostalCode())
                 .build();
     }
+
+    private ShippingDTO copy(ShippingDTO shipping) {
+        return ShippingDTO.builder()
+                .id(shipping.getId())
+                .name(shipping.getName())
+                .displayName(shipping.getDisplayName())
+                .baseCost(shipping.getBaseCost())
+                .description(shipping.getDescription())
+                .estimatedDays(shipping.getEstimatedDays())
+                .requiresPostalCode(shipping.getRequiresPostalCode())
+                .build();
+    }
+
+    private enum Zone {
+        NONE,
+        CABA,
+        INTERIOR;
+
+        // CABA: códigos que empiezan con C o 1
+        private static Zone of(String postalCode) {
+            return postalCode.startsWith("C") || postalCode.startsWith("1") ? CABA : INTERIOR;
+        }
+    }
+
+    private record CostKey(Long shippingId, Zone zone) {
+    }
+
+    private record Registry(Map<Long, ShippingDTO> methods, List<ShippingDTO> activeMethods,
+                            Map<CostKey, BigDecimal> costs) {
+    }
 }
@@ -0,0 +1,289 @@
+package org.example.back.services.imp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.back.entities.StockReservationEntity;
+import org.example.back.repositories.ProductRepository;
+import org.example.back.repositories.StockReservationRepository;
+import org.example.back.repositories.UserRepository;
+import org.example.back.services.StockReservationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Reservas de stock para los carritos que iniciaron el pago.
+ * Los contadores de unidades reservadas por producto viven en memoria y se protegen con locks por franja
+ * (un lock cada grupo de productos), de modo que dos checkouts sobre productos distintos no se bloquean
+ * entre sí ni compiten por la fila del producto. La tabla stock_reservations permite reconstruir los
+ * contadores al reiniciar la aplicación.
+ * Las filas se escriben en la transacción del llamador (el checkout), sin abrir una segunda conexión.
+ * Los contadores cambian en el momento, para que los checkouts concurrentes ya los vean, y si esa
+ * transacción se revierte se restaura la reserva que el usuario tenía antes de empezarla.
+ */
+@Service
+@Slf4j
+public class StockReservationServiceImp implements StockReservationService {
+
+    private static final int STRIPES = 64;
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Debe coincidir con el vencimiento de la preferencia de MercadoPago
+    @Value("${mercadopago.preference.expiration-hours:48}")
+    private long expirationHours;
+
+    private final ReentrantLock[] productLocks = newLocks();
+    private final ReentrantLock[] userLocks = newLocks();
+    private final Map<Long, Integer> reservedByProduct = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> reservationsByUser = new ConcurrentHashMap<>();
+
+    public StockReservationServiceImp(StockReservationRepository reservationRepository,
+                                      ProductRepository productRepository,
+                                      UserRepository userRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        // REQUIRED: se une a la transacción del checkout; al arrancar y en el barrido programado abre una propia
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = transactionTemplate.execute(status -> reservationRepository.findActiveRows(now));
+        Map<Long, Map<Long, Integer>> quantitiesByUser = new ConcurrentHashMap<>();
+        Map<Long, LocalDateTime> expirationByUser = new ConcurrentHashMap<>();
+        for (Object[] row : rows) {
+            Long userId = (Long) row[0];
+            Long productId = (Long) row[1];
+            Integer quantity = (Integer) row[2];
+            quantitiesByUser.computeIfAbsent(userId, id -> new ConcurrentHashMap<>())
+                    .merge(productId, quantity, Integer::sum);
+            expirationByUser.merge(userId, (LocalDateTime) row[3], (a, b) -> a.isBefore(b) ? a : b);
+            reservedByProduct.merge(productId, quantity, Integer::sum);
+        }
+        quantitiesByUser.forEach((userId, quantities) ->
+                reservationsByUser.put(userId, new Reservation(Map.copyOf(quantities), expirationByUser.get(userId))));
+        log.info("Loaded {} stock reservations for {} users", rows.size(), reservationsByUser.size());
+    }
+
+    @Override
+    public void reserve(Long userId, Map<Long, Integer> quantities) {
+        ReentrantLock userLock = userLocks[stripe(userId)];
+        userLock.lock();
+        try {
+            release(userId);
+            if (quantities.isEmpty()) {
+                return;
+            }
+
+            // Se toman los locks en orden creciente para evitar deadlocks entre checkouts concurrentes
+            TreeSet<Integer> stripes = quantities.keySet().stream()
+                    .map(this::stripe)
+                    .collect(Collectors.toCollection(TreeSet::new));
+            stripes.forEach(i -> productLocks[i].lock());
+            try {
+                // El stock se lee bajo los locks y directo de la base: una orden que confirmó su descuento
+                // antes de este punto ya se ve reflejada, y sus contadores se liberan recién después
+                Map<Long, Object[]> stockRows = productRepository.findStockRows(quantities.keySet()).stream()
+                        .collect(Collectors.toMap(row -> (Long) row[0], row -> row));
+                quantities.forEach((productId, quantity) -> {
+                    Object[] row = stockRows.get(productId);
+                    if (row == null) {
+                        throw new RuntimeException("Producto no encontrado");
+                    }
+                    int available = (Integer) row[2] - getReservedQuantity(productId);
+                    if (available < quantity) {
+                        throw new RuntimeException("Stock insuficiente para " + row[1] +
+                                ". Disponible: " + Math.max(available, 0) + ", Solicitado: " + quantity);
+                    }
+                });
+                quantities.forEach((productId, quantity) -> reservedByProduct.merge(productId, quantity, Integer::sum));
+            } finally {
+                stripes.descendingSet().forEach(i -> productLocks[i].unlock());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            Reservation reservation = new Reservation(Map.copyOf(quantities), now.plusHours(expirationHours));
+            try {
+                transactionTemplate.executeWithoutResult(status -> reservationRepository.saveAll(
+                        quantities.entrySet().stream()
+                                .map(entry -> new StockReservationEntity(null,
+                                        userRepository.getReferenceById(userId),
+                                        productRepository.getReferenceById(entry.getKey()),
+                                        entry.getValue(), now, reservation.expiresAt()))
+                                .toList()));
+            } catch (RuntimeException e) {
+                subtract(reservation.quantities());
+                throw e;
+            }
+            restoreOnRollback(userId);
+            reservationsByUser.put(userId, reservation);
+        } finally {
+            userLock.unlock();
+        }
+    }
+
+    @Override
+    public void release(Long userId) {
+        ReentrantLock userLock = userLocks[stripe(userId)];
+        userLock.lock();
+        try {
+            Reservation reservation = reservationsByUser.get(userId);
+            if (reservation == null) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> reservationRepository.deleteByUserId(userId));
+            restoreOnRollback(userId);
+            if (reservationsByUser.remove(userId, reservation)) {
+                subtract(reservation.quantities());
+            }
+        } finally {
+            userLock.unlock();
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> convert(Long userId) {
+        Reservation reservation = reservationsByUser.get(userId);
+        if (reservation == null || reservation.expiresAt().isBefore(LocalDateTime.now())) {
+            return Map.of();
+        }
+
+        // Las filas se borran en la transacción de la orden; los contadores se liberan recién al confirmarla,
+        // cuando el stock del producto ya quedó descontado
+        reservationRepository.deleteByUserId(userId);
+        Runnable releaseCounters = () -> {
+            if (reservationsByUser.remove(userId, reservation)) {
+                subtract(reservation.quantities());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseCounters.run();
+                }
+            });
+        } else {
+            releaseCounters.run();
+        }
+        return reservation.quantities();
+    }
+
+    @Override
+    public int getReservedQuantity(Long productId) {
+        return reservedByProduct.getOrDefault(productId, 0);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${stock.reservation.sweep-interval-ms:60000}")
+    public void expireReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (Map.Entry<Long, Reservation> entry : reservationsByUser.entrySet()) {
+            Reservation reservation = entry.getValue();
+            if (!reservation.expiresAt().isAfter(now) && reservationsByUser.remove(entry.getKey(), reservation)) {
+                subtract(reservation.quantities());
+                expired++;
+            }
+        }
+        Integer deleted = transactionTemplate.execute(status -> reservationRepository.deleteExpired(now));
+        if (expired > 0 || (deleted != null && deleted > 0)) {
+            log.info("Expired {} stock reservations ({} rows)", expired, deleted);
+        }
+    }
+
+    // Primera modificación de la reserva del usuario en la transacción actual: se recuerda cómo estaba
+    // para restaurar los contadores si la transacción se revierte (las filas las restaura la base)
+    private void restoreOnRollback(Long userId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> touchedUsers = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (touchedUsers == null) {
+            touchedUsers = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, touchedUsers);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StockReservationServiceImp.this);
+                }
+            });
+        }
+        if (!touchedUsers.add(userId)) {
+            return;
+        }
+
+        Reservation before = reservationsByUser.get(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    restore(userId, before);
+                }
+            }
+        });
+    }
+
+    private void restore(Long userId, Reservation before) {
+        ReentrantLock userLock = userLocks[stripe(userId)];
+        userLock.lock();
+        try {
+            Reservation current = reservationsByUser.get(userId);
+            if (current == before) {
+                return;
+            }
+            if (current != null && reservationsByUser.remove(userId, current)) {
+                subtract(current.quantities());
+            }
+            if (before != null && before.expiresAt().isAfter(LocalDateTime.now())) {
+                reservationsByUser.put(userId, before);
+                before.quantities().forEach((productId, quantity) -> reservedByProduct.merge(productId, quantity, Integer::sum));
+            }
+        } finally {
+            userLock.unlock();
+        }
+    }
+
+    private void subtract(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) ->
+                reservedByProduct.computeIfPresent(productId, (id, reserved) -> reserved > quantity ? reserved - quantity : null));
+    }
+
+    private int stripe(Long id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+
+    private static ReentrantLock[] newLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private record Reservation(Map<Long, Integer> quantities, LocalDateTime expiresAt) {
+    }
+}
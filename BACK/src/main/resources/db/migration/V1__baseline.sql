@@ -0,0 +1,239 @@
+-- Esquema tal como lo generaba spring.jpa.hibernate.ddl-auto=update antes de pasar a migraciones.
+-- En una base existente no se ejecuta: spring.flyway.baseline-on-migrate la marca como versión 1
+-- y se aplican solo las migraciones siguientes, que son idempotentes.
+
+CREATE TABLE users (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    email varchar(255) NOT NULL UNIQUE,
+    password varchar(255) NOT NULL,
+    first_name varchar(255) NOT NULL,
+    last_name varchar(255) NOT NULL,
+    role varchar(255) CHECK (role IN ('CUSTOMER','ADMINISTRATOR')),
+    type_doc varchar(255) NOT NULL CHECK (type_doc IN ('DNI','PASAPORTE')),
+    nro_doc varchar(255) NOT NULL UNIQUE,
+    phone_number varchar(255),
+    address varchar(255),
+    city varchar(255),
+    email_verified boolean NOT NULL,
+    verification_code varchar(6),
+    verification_code_expiry timestamp(6),
+    terms_accepted boolean NOT NULL,
+    terms_accepted_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE brand (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255) NOT NULL,
+    active boolean NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE category (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255) NOT NULL,
+    active boolean NOT NULL,
+    brand_id bigint NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE providers (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    phone varchar(255) NOT NULL,
+    street varchar(255) NOT NULL,
+    is_active boolean NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255) NOT NULL,
+    description varchar(255) NOT NULL,
+    price numeric(10,2) NOT NULL,
+    stock integer NOT NULL,
+    active boolean NOT NULL,
+    brand_id bigint NOT NULL,
+    category_id bigint NOT NULL,
+    provider_id bigint,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_images (
+    product_id bigint NOT NULL,
+    image_url varchar(255)
+);
+
+CREATE TABLE payment_methods (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255) NOT NULL,
+    display_name varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE shipping (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(255) NOT NULL UNIQUE,
+    display_name varchar(255) NOT NULL,
+    description varchar(500),
+    base_cost numeric(10,2) NOT NULL,
+    cost_per_km numeric(10,2),
+    estimated_days integer,
+    requires_postal_code boolean,
+    active boolean NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE cart (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    user_id bigint NOT NULL UNIQUE,
+    shipping_id bigint,
+    shipping_address varchar(255),
+    shipping_city varchar(255),
+    shipping_postal_code varchar(255),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE cart_item (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    cart_id bigint NOT NULL,
+    product_id bigint NOT NULL,
+    quantity integer NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    user_id bigint NOT NULL,
+    date timestamp(6) NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING','PAID','PROCESSING','SHIPPED','DELIVERED','COMPLETED','CANCELLED')),
+    payment_method_id bigint NOT NULL,
+    shipping_id bigint NOT NULL,
+    mercadopago_order_id varchar(255),
+    payment_id varchar(255),
+    shipping_cost numeric(10,2),
+    shipping_address varchar(255),
+    shipping_city varchar(255),
+    shipping_postal_code varchar(255),
+    subtotal numeric(10,2),
+    customer_nro_doc varchar(255),
+    customer_type_doc varchar(255),
+    PRIMARY KEY (id),
+    CHECK (status IN ('PENDING', 'PAID', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'COMPLETED', 'CANCELLED'))
+);
+
+CREATE TABLE order_details (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_id bigint NOT NULL,
+    product_id bigint NOT NULL,
+    quantity integer NOT NULL,
+    price numeric(10,2) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE replenishments (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    product_id bigint NOT NULL,
+    quantity integer NOT NULL,
+    date timestamp(6) NOT NULL,
+    movement_type varchar(255) NOT NULL CHECK (movement_type IN ('INCOME','EXPENSE')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE shipments (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_id bigint NOT NULL UNIQUE,
+    tracking_code varchar(50) NOT NULL UNIQUE,
+    carrier varchar(255),
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING','PROCESSING','READY_FOR_PICKUP','IN_TRANSIT','OUT_FOR_DELIVERY','DELIVERED','FAILED_DELIVERY','RETURNED','CANCELLED')),
+    created_at timestamp(6) NOT NULL,
+    shipped_at timestamp(6),
+    delivered_at timestamp(6),
+    estimated_delivery_date timestamp(6),
+    recipient_name varchar(500),
+    recipient_address varchar(500),
+    recipient_city varchar(100),
+    recipient_postal_code varchar(20),
+    recipient_phone varchar(50),
+    notes varchar(1000),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE shipment_tracking (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    shipment_id bigint NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING','PROCESSING','READY_FOR_PICKUP','IN_TRANSIT','OUT_FOR_DELIVERY','DELIVERED','FAILED_DELIVERY','RETURNED','CANCELLED')),
+    location varchar(500),
+    description varchar(1000),
+    timestamp timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE purchase_orders (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    provider_id bigint NOT NULL,
+    order_date date NOT NULL,
+    order_status varchar(255) NOT NULL CHECK (order_status IN ('PENDING','PAID','PROCESSING','SHIPPED','DELIVERED','COMPLETED','CANCELLED')),
+    expected_delivery_days integer,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE purchase_order_details (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    purchase_order_id bigint NOT NULL,
+    product_id bigint NOT NULL,
+    requested_quantity integer NOT NULL,
+    requested_price float(53) NOT NULL,
+    simulated_received_quantity integer,
+    final_price float(53),
+    simulated_status varchar(255) CHECK (simulated_status IN ('COMPLETE','PARTIAL','NOT_AVAILABLE')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE invoice (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    provider_id bigint NOT NULL,
+    purchase_order_id bigint UNIQUE,
+    date date NOT NULL,
+    total_entered float(53) NOT NULL,
+    order_status varchar(255) NOT NULL CHECK (order_status IN ('PENDING','PAID','PROCESSING','SHIPPED','DELIVERED','COMPLETED','CANCELLED')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE invoice_detail (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    invoice_id bigint NOT NULL,
+    product_id bigint NOT NULL,
+    quantity integer NOT NULL,
+    purchase_order float(53) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Claves foráneas con los nombres que generaba Hibernate, para que coincidan con las bases existentes
+ALTER TABLE category ADD CONSTRAINT FK57gpi2dtsm4euf8w2rpi7odge FOREIGN KEY (brand_id) REFERENCES brand;
+ALTER TABLE products ADD CONSTRAINT FKl2cyj2st6mjygl2pgwd057ivu FOREIGN KEY (brand_id) REFERENCES brand;
+ALTER TABLE products ADD CONSTRAINT FK1cf90etcu98x1e6n9aks3tel3 FOREIGN KEY (category_id) REFERENCES category;
+ALTER TABLE products ADD CONSTRAINT FKtltawi3myjt9pi09219eiou1o FOREIGN KEY (provider_id) REFERENCES providers;
+ALTER TABLE product_images ADD CONSTRAINT FKqnq71xsohugpqwf3c9gxmsuy FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE cart ADD CONSTRAINT FKg5uhi8vpsuy0lgloxk2h4w5o6 FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE cart ADD CONSTRAINT FKk5gbsbrtj0hblsyrijfse9jp FOREIGN KEY (shipping_id) REFERENCES shipping;
+ALTER TABLE cart_item ADD CONSTRAINT FK1uobyhgl1wvgt1jpccia8xxs3 FOREIGN KEY (cart_id) REFERENCES cart;
+ALTER TABLE cart_item ADD CONSTRAINT FKqkqmvkmbtiaqn2nfqf25ymfs2 FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE orders ADD CONSTRAINT FK32ql8ubntj5uh44ph9659tiih FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE orders ADD CONSTRAINT FKa03ljb6t6oa6mqtoifuwkb0kw FOREIGN KEY (payment_method_id) REFERENCES payment_methods;
+ALTER TABLE orders ADD CONSTRAINT FKsemahq4easllj6if07wtarony FOREIGN KEY (shipping_id) REFERENCES shipping;
+ALTER TABLE order_details ADD CONSTRAINT FKjyu2qbqt8gnvno9oe9j2s2ldk FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE order_details ADD CONSTRAINT FK4q98utpd73imf4yhttm3w0eax FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE replenishments ADD CONSTRAINT FKw63uc6w5xxiw6gasmx0llwgk FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE shipments ADD CONSTRAINT FKrnt4wht95lxxplspltrg9681s FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE shipment_tracking ADD CONSTRAINT FKcg3x538n3rgh19k45ibkkabps FOREIGN KEY (shipment_id) REFERENCES shipments;
+ALTER TABLE purchase_orders ADD CONSTRAINT FKl5c9c7aa0e4gs49lyq0bfv4tx FOREIGN KEY (provider_id) REFERENCES providers;
+ALTER TABLE purchase_order_details ADD CONSTRAINT FK7k5h72ashr7waatbffpug92ei FOREIGN KEY (purchase_order_id) REFERENCES purchase_orders;
+ALTER TABLE purchase_order_details ADD CONSTRAINT FKpouou78xjt37rqmveufppyhtp FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE invoice ADD CONSTRAINT FKohk6lfkb8vnqi7uj6nqc1voiv FOREIGN KEY (provider_id) REFERENCES providers;
+ALTER TABLE invoice ADD CONSTRAINT FKsu6ohn7hhn745f7vpxighdk1i FOREIGN KEY (purchase_order_id) REFERENCES purchase_orders;
+ALTER TABLE invoice_detail ADD CONSTRAINT FKit1rbx4thcr6gx6bm3gxub3y4 FOREIGN KEY (invoice_id) REFERENCES invoice;
+ALTER TABLE invoice_detail ADD CONSTRAINT FKi0gthgecrfmo8unchhqgjsf3h FOREIGN KEY (product_id) REFERENCES products;
@@ -0,0 +1,59 @@
+-- Ids por secuencia con bloques de 50 (allocationSize de los @SequenceGenerator) para poder agrupar INSERTs.
+-- Todo es idempotente: las bases que ya corrieron con ddl-auto=update pueden tener parte de estos objetos.
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cart_item_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_details_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS replenishments_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE cart_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE order_details ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE replenishments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Con el optimizador pooled cada nextval es el tope de un bloque de 50 ids: el próximo bloque tiene que
+-- empezar después del mayor id existente y no puede retroceder si la secuencia ya estaba en uso
+SELECT setval('products_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM products),
+                                       (SELECT last_value FROM products_seq)) + 50, false);
+SELECT setval('cart_item_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM cart_item),
+                                        (SELECT last_value FROM cart_item_seq)) + 50, false);
+SELECT setval('order_details_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM order_details),
+                                            (SELECT last_value FROM order_details_seq)) + 50, false);
+SELECT setval('replenishments_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM replenishments),
+                                             (SELECT last_value FROM replenishments_seq)) + 50, false);
+
+CREATE INDEX IF NOT EXISTS idx_products_category_active ON products (category_id, active);
+CREATE INDEX IF NOT EXISTS idx_products_brand_active ON products (brand_id, active);
+
+-- Stock retenido al iniciar el pago
+CREATE SEQUENCE IF NOT EXISTS stock_reservations_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    product_id bigint NOT NULL,
+    quantity integer NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKfk30u9q7gbasa8n0qcihpmdfu FOREIGN KEY (user_id) REFERENCES users,
+    CONSTRAINT FKbvnv40iyf8tf31cs26ejqk5vl FOREIGN KEY (product_id) REFERENCES products
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_user ON stock_reservations (user_id);
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_expires ON stock_reservations (expires_at);
+
+-- Métricas de carritos abandonados purgados (product_id nulo = totales del día)
+CREATE SEQUENCE IF NOT EXISTS abandoned_cart_summary_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS abandoned_cart_summary (
+    id bigint NOT NULL,
+    summary_date date NOT NULL,
+    product_id bigint,
+    cart_count bigint NOT NULL,
+    units bigint NOT NULL,
+    total_value numeric(14,2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_abandoned_cart_summary_date_product UNIQUE (summary_date, product_id),
+    CONSTRAINT FKd8s5yghp83fjf5vis6x0xc7qo FOREIGN KEY (product_id) REFERENCES products
+);
@@ -0,0 +1,20 @@
+-- Búsqueda de órdenes (OrderSearch): igualdad sobre columnas indexadas para números y emails,
+-- ILIKE '%texto%' sobre índices trigram para texto libre.
+-- CONCURRENTLY no bloquea las escrituras sobre orders mientras se construye cada índice; no puede correr
+-- dentro de una transacción, así que cada sentencia se confirma sola. Si una falla queda un índice INVALID:
+-- hay que borrarlo (DROP INDEX CONCURRENTLY) antes de reintentar, porque IF NOT EXISTS lo saltearía
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_user_date ON orders (user_id, date);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_date ON orders (date);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_payment_id ON orders (payment_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_mercadopago_order_id ON orders (mercadopago_order_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_customer_nro_doc ON orders (customer_nro_doc);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower ON users (LOWER(email));
+
+-- pg_trgm es una extensión "trusted": la puede crear el dueño de la base sin ser superusuario
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm ON users USING gin (email gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_shipping_address_trgm ON orders USING gin (shipping_address gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_shipping_city_trgm ON orders USING gin (shipping_city gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_shipping_postal_code_trgm ON orders USING gin (shipping_postal_code gin_trgm_ops);
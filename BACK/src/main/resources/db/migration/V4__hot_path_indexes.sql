@@ -0,0 +1,23 @@
+-- Índices de los predicados más usados y de los reportes. Postgres no indexa las claves foráneas por sí solo.
+-- shipments(order_id), shipments(tracking_code), cart(user_id) y users(email) ya tienen el índice
+-- de su restricción UNIQUE. Se construyen CONCURRENTLY, como los de V3.
+
+-- Listados y reportes de órdenes por estado y período
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status_date ON orders (status, date);
+
+-- Detalles por orden (listados, reportes) y por producto (productos más vendidos, sin movimiento)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_details_order ON order_details (order_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_details_product ON order_details (product_id);
+
+-- Movimientos de stock por producto y fecha
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_replenishments_product_date ON replenishments (product_id, date);
+
+-- Ítems por carrito (carga del carrito, barrido de carritos vacíos o abandonados)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cart_item_cart ON cart_item (cart_id);
+
+-- Imágenes por producto (carga en batch) y seguimiento por envío
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_images_product ON product_images (product_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_shipment_tracking_shipment ON shipment_tracking (shipment_id, timestamp);
+
+-- Categorías por marca (árbol de marcas y filtros del catálogo)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_category_brand ON category (brand_id);
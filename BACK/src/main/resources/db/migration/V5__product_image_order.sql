@@ -0,0 +1,16 @@
+-- Posición de cada imagen dentro de Product.imageUrls (@OrderColumn), para que "la primera imagen" esté definida en SQL.
+-- Las filas existentes se numeran en el orden físico en que Hibernate las leía hasta ahora.
+
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS image_order integer;
+
+UPDATE product_images pi
+SET image_order = numbered.position
+FROM (
+    SELECT ctid, row_number() OVER (PARTITION BY product_id ORDER BY ctid) - 1 AS position
+    FROM product_images
+) numbered
+WHERE pi.ctid = numbered.ctid
+  AND pi.image_order IS NULL;
+
+ALTER TABLE product_images ALTER COLUMN image_order SET NOT NULL;
+ALTER TABLE product_images ADD CONSTRAINT pk_product_images PRIMARY KEY (product_id, image_order);
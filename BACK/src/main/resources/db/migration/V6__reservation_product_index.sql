@@ -0,0 +1,4 @@
+-- Reservas vigentes por producto: el descuento de stock de una orden las resta dentro del mismo UPDATE.
+-- CONCURRENTLY no bloquea las escrituras mientras se construye el índice (y no puede correr en una transacción).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stock_reservations_product ON stock_reservations (product_id, expires_at);
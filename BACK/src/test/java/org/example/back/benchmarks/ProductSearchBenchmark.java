@@ -0,0 +1,109 @@
+package org.example.back.benchmarks;
+
+import org.example.back.entities.BrandEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.mappers.CatalogMapper;
+import org.example.back.models.Product;
+import org.example.back.repositories.ProductRepository;
+import org.example.back.services.imp.ProductSearchServiceImp;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de /products/search con el índice invertido, comparada con recorrer el catálogo filtrando
+ * por "contiene" (lo mínimo que haría una búsqueda sin índice, y sin tolerancia a errores de tipeo).
+ * Se ejecuta con el método main desde el classpath de test, por ejemplo desde el IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {"mate", "termo", "yerba", "bombilla", "cuchillo", "parrilla",
+            "asador", "tabla", "vaso", "jarra", "olla", "sarten", "mochila", "carpa", "linterna"};
+
+    @Param({"1000", "10000"})
+    private int catalogSize;
+
+    // Término exacto, prefijo y término con error de tipeo
+    @Param({"termo acero", "parr", "bombila"})
+    private String query;
+
+    private ProductSearchServiceImp searchService;
+    private List<ProductEntity> products;
+
+    @Setup
+    public void setUp() {
+        List<BrandEntity> brands = new ArrayList<>();
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            BrandEntity brand = new BrandEntity(i, "Marca " + i, new ArrayList<>(), true);
+            brands.add(brand);
+            categories.add(new CategoryEntity(i, "Categoría " + i, brand, true));
+        }
+
+        products = new ArrayList<>(catalogSize);
+        for (long i = 0; i < catalogSize; i++) {
+            CategoryEntity category = categories.get((int) (i % categories.size()));
+            ProductEntity product = new ProductEntity();
+            product.setId(i);
+            product.setName(WORDS[(int) (i % WORDS.length)] + " " + WORDS[(int) (i / WORDS.length % WORDS.length)] + " " + i);
+            product.setDescription("Producto de acero inoxidable número " + i);
+            product.setBrand(category.getBrand());
+            product.setCategory(category);
+            product.setPrice(BigDecimal.valueOf(1000 + i));
+            product.setImageUrls(new ArrayList<>(List.of("https://img/" + i + ".png")));
+            product.setStock(10);
+            product.setActive(true);
+            products.add(product);
+        }
+
+        ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+        Mockito.when(productRepository.findByActiveTrue()).thenReturn(products);
+        searchService = new ProductSearchServiceImp(productRepository, new CatalogMapper());
+        searchService.rebuildIndex();
+    }
+
+    @Benchmark
+    public List<Product> invertedIndex() {
+        return searchService.search(query, 20);
+    }
+
+    @Benchmark
+    public List<ProductEntity> linearScan() {
+        String[] terms = query.toLowerCase(Locale.ROOT).split(" ");
+        List<ProductEntity> result = new ArrayList<>();
+        for (ProductEntity product : products) {
+            String text = (product.getName() + " " + product.getDescription() + " "
+                    + product.getBrand().getName() + " " + product.getCategory().getName()).toLowerCase(Locale.ROOT);
+            boolean matches = true;
+            for (String term : terms) {
+                if (!text.contains(term)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches && result.size() < 20) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
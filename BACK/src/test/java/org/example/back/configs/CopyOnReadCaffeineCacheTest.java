@@ -0,0 +1,51 @@
+package org.example.back.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.back.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CopyOnReadCaffeineCacheTest {
+
+    private final CopyOnReadCaffeineCache cache =
+            new CopyOnReadCaffeineCache("products", Caffeine.newBuilder().build(), false);
+
+    @Test
+    void callerChangesDoNotReachCachedProduct() {
+        Product product = product(1L, "Original");
+        cache.put(1L, product);
+        product.setName("Changed before read");
+
+        Product read = cache.get(1L, Product.class);
+        read.setName("Changed after read");
+        read.getImageUrls().add("extra.png");
+
+        Product again = cache.get(1L, Product.class);
+        assertEquals("Original", again.getName());
+        assertEquals(List.of("a.png"), again.getImageUrls());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pagesAreCopiedItemByItem() {
+        Page<Product> page = new PageImpl<>(List.of(product(1L, "Original")), PageRequest.of(0, 10), 1);
+        Page<Product> loaded = cache.get("page", () -> page);
+        loaded.getContent().get(0).setName("Changed");
+
+        Page<Product> read = (Page<Product>) cache.get("page").get();
+        assertEquals("Original", read.getContent().get(0).getName());
+        assertEquals(1, read.getTotalElements());
+        assertEquals(PageRequest.of(0, 10), read.getPageable());
+    }
+
+    private Product product(Long id, String name) {
+        return Product.builder().id(id).name(name).imageUrls(new ArrayList<>(List.of("a.png"))).build();
+    }
+}
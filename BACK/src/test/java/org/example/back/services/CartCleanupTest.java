@@ -0,0 +1,101 @@
+package org.example.back.services;
+
+import org.example.back.entities.CartEntity;
+import org.example.back.entities.CartItemEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.entities.UserEntity;
+import org.example.back.repositories.CartRepository;
+import org.example.back.repositories.ShippingRepository;
+import org.example.back.services.imp.CartCleanupScheduler;
+import org.example.back.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+class CartCleanupTest extends PostgresIntegrationTest {
+
+    @MockBean
+    private MercadoPagoService mercadoPagoService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ShippingRepository shippingRepository;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private CartCleanupScheduler cartCleanupScheduler;
+
+    private ProductEntity product;
+
+    @BeforeEach
+    void setUp() {
+        CategoryEntity category = category("Marca", "Categoría");
+        product = product(category, "Termo", 10);
+    }
+
+    @Test
+    void abandonedCartsOfUsersWithAnActiveReservationAreKept() {
+        UserEntity idle = user("inactivo@example.com");
+        UserEntity paying = user("pagando@example.com");
+        Long idleCart = abandonedCart(idle);
+        Long payingCart = abandonedCart(paying);
+        stockReservationService.reserve(paying.getId(), Map.of(product.getId(), 1));
+
+        cartCleanupScheduler.purgeAbandonedCarts();
+
+        assertThat(cartRepository.existsById(idleCart)).isFalse();
+        assertThat(cartRepository.existsById(payingCart)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(cart_count) FROM abandoned_cart_summary WHERE product_id IS NULL",
+                Long.class)).isEqualTo(1L);
+        stockReservationService.release(paying.getId());
+    }
+
+    @Test
+    void initiatingPaymentCountsAsCartActivity() throws Exception {
+        UserEntity user = user("cliente@example.com");
+        Long cartId = abandonedCart(user);
+        when(mercadoPagoService.createPreference(any(), any(), any(), anyString())).thenReturn("https://pago");
+        loginAs(user);
+
+        cartService.initiatePayment();
+        stockReservationService.release(user.getId());
+        cartCleanupScheduler.purgeAbandonedCarts();
+
+        assertThat(cartRepository.existsById(cartId)).isTrue();
+        assertThat(cartRepository.findById(cartId).orElseThrow().getUpdatedAt())
+                .isAfter(LocalDateTime.now().minusMinutes(1));
+    }
+
+    private Long abandonedCart(UserEntity user) {
+        LocalDateTime lastActivity = LocalDateTime.now().minusDays(40);
+        CartEntity cart = new CartEntity();
+        cart.setUser(user);
+        cart.setSelectedShipping(shippingRepository.findByActiveTrue().get(0));
+        cart.setShippingPostalCode("5500");
+        cart.setCreatedAt(lastActivity);
+        cart.setUpdatedAt(lastActivity);
+        CartItemEntity item = new CartItemEntity();
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setQuantity(2);
+        cart.getItems().add(item);
+        return cartRepository.save(cart).getId();
+    }
+}
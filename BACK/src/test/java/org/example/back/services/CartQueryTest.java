@@ -0,0 +1,61 @@
+package org.example.back.services;
+
+import org.example.back.dtos.CartDTO;
+import org.example.back.entities.CartEntity;
+import org.example.back.entities.CartItemEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.UserEntity;
+import org.example.back.repositories.CartRepository;
+import org.example.back.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartQueryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Test
+    void getCartRunsTheSameStatementsWhateverTheNumberOfItems() {
+        UserEntity oneItem = cartWithItems("uno@example.com", 1);
+        UserEntity manyItems = cartWithItems("muchos@example.com", 15);
+
+        // Usuario actual, carrito con ítems, productos, marcas, categorías y envío, e imágenes en un batch
+        assertThat(statementsForGetCart(oneItem, 1)).isEqualTo(3);
+        assertThat(statementsForGetCart(manyItems, 15)).isEqualTo(3);
+    }
+
+    private long statementsForGetCart(UserEntity user, int expectedItems) {
+        loginAs(user);
+        AtomicReference<CartDTO> result = new AtomicReference<>();
+        long statements = countStatements(() -> result.set(cartService.getCartByUser()));
+        assertThat(result.get().getItems()).hasSize(expectedItems);
+        return statements;
+    }
+
+    private UserEntity cartWithItems(String email, int items) {
+        UserEntity user = user(email);
+        CartEntity cart = new CartEntity();
+        cart.setUser(user);
+        cart.setCreatedAt(LocalDateTime.now());
+        for (int i = 0; i < items; i++) {
+            // Cada producto con su propia marca y categoría, como en un carrito real
+            CategoryEntity category = category(email + " marca " + i, "Categoría " + i);
+            CartItemEntity item = new CartItemEntity();
+            item.setCart(cart);
+            item.setProduct(product(category, email + " producto " + i, 10, "https://img/" + i + ".jpg"));
+            item.setQuantity(1 + i % 3);
+            cart.getItems().add(item);
+        }
+        cartRepository.save(cart);
+        return user;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.back.services;
+
+import org.example.back.entities.CartEntity;
+import org.example.back.entities.CartItemEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.entities.UserEntity;
+import org.example.back.repositories.CartRepository;
+import org.example.back.services.imp.CartWriteBuffer;
+import org.example.back.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartWriteBufferTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartWriteBuffer cartWriteBuffer;
+
+    private UserEntity user;
+    private ProductEntity product;
+
+    @BeforeEach
+    void setUp() {
+        user = user("cliente@example.com");
+        CategoryEntity category = category("Marca", "Categoría");
+        product = product(category, "Termo", 10);
+
+        CartEntity cart = new CartEntity();
+        cart.setUser(user);
+        cart.setCreatedAt(LocalDateTime.now());
+        CartItemEntity item = new CartItemEntity();
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setQuantity(1);
+        cart.getItems().add(item);
+        cartRepository.save(cart);
+        loginAs(user);
+    }
+
+    @Test
+    void pendingChangesSurviveARolledBackFlush() {
+        cartService.updateCartItem(product.getId(), 4);
+
+        // addItemToCart escribe los cambios pendientes en su transacción y luego falla: se revierte todo
+        assertThatThrownBy(() -> cartService.addItemToCart(product.getId()))
+                .hasMessage("Producto ya agregado al carrito");
+        assertThat(storedQuantity()).isEqualTo(1);
+
+        // El cambio sigue pendiente y se escribe con la siguiente operación sobre el carrito
+        assertThat(cartService.getCartByUser().getItems().get(0).getQuantity()).isEqualTo(4);
+        assertThat(storedQuantity()).isEqualTo(4);
+    }
+
+    @Test
+    void reorderOfAnUnknownOrderKeepsPendingChanges() {
+        cartService.updateCartItem(product.getId(), 5);
+
+        assertThatThrownBy(() -> cartService.reorderFromOrder(999_999L))
+                .hasMessage("Orden no encontrada");
+
+        assertThat(cartService.getCartByUser().getItems().get(0).getQuantity()).isEqualTo(5);
+        assertThat(storedQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void idleCartsAreWrittenInTheirOwnTransaction() {
+        cartService.updateCartItem(product.getId(), 3);
+        assertThat(storedQuantity()).isEqualTo(1);
+
+        cartWriteBuffer.flushAll();
+
+        assertThat(storedQuantity()).isEqualTo(3);
+    }
+
+    private Integer storedQuantity() {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM cart_item", Integer.class);
+    }
+}
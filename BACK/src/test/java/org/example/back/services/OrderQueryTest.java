@@ -0,0 +1,150 @@
+package org.example.back.services;
+
+import org.example.back.dtos.response.OrderResponse;
+import org.example.back.entities.CartEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.entities.UserEntity;
+import org.example.back.enums.OrderStatus;
+import org.example.back.models.OrderDetailRequest;
+import org.example.back.models.OrderRequest;
+import org.example.back.repositories.CartRepository;
+import org.example.back.repositories.PaymentMethodRepository;
+import org.example.back.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderQueryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private PaymentMethodRepository paymentMethodRepository;
+
+    private final List<ProductEntity> products = new ArrayList<>();
+    private Long paymentMethodId;
+
+    @BeforeEach
+    void setUp() {
+        products.clear();
+        for (int i = 0; i < 20; i++) {
+            CategoryEntity category = category("Marca " + i, "Categoría " + i);
+            products.add(product(category, "Producto " + i, 100, "https://img/" + i + ".jpg"));
+        }
+        paymentMethodId = paymentMethodRepository.findAll().get(0).getId();
+    }
+
+    @Test
+    void createOrderRunsTheSameStatementsWhateverTheNumberOfLines() {
+        String oneLineBuyer = buyer("uno@example.com").getEmail();
+        String manyLinesBuyer = buyer("veinte@example.com").getEmail();
+        long oneLine = statementsForOrder(1, oneLineBuyer);
+        long manyLines = statementsForOrder(20, manyLinesBuyer);
+
+        // Productos con marca y categoría en una consulta; detalles y movimientos de stock en un batch cada uno
+        assertThat(manyLines).isEqualTo(oneLine);
+        assertThat(count("order_details")).isEqualTo(21);
+        assertThat(count("replenishments")).isEqualTo(21);
+    }
+
+    @Test
+    void orderPagesRunTheSameStatementsWhateverTheirSize() {
+        UserEntity customer = buyer("cliente@example.com");
+        for (int i = 0; i < 30; i++) {
+            // Órdenes de 1 a 5 líneas, cada una con productos de marcas y categorías distintas
+            orderService.createOrder(order(1 + i % 5), customer.getEmail());
+        }
+        loginAs(customer);
+
+        // Ids de la página, órdenes con detalles y productos, imágenes en un batch y envíos. Sin el total:
+        // el conteo del listado admin queda en cache después de la primera página
+        long smallAdminPage = countStatements(() -> assertThat(
+                orderService.getAllOrders(null, null, null, null, 0, 5, false).getContent()).hasSize(5));
+        long largeAdminPage = countStatements(() -> assertThat(
+                orderService.getAllOrders(null, null, null, null, 0, 30, false).getContent()).hasSize(30));
+        long smallUserPage = countStatements(() -> assertThat(
+                orderService.getUserOrders(null, null, null, null, 0, 5).getContent()).hasSize(5));
+        long largeUserPage = countStatements(() -> assertThat(
+                orderService.getUserOrders(null, null, null, null, 0, 30).getContent()).hasSize(30));
+
+        assertThat(smallAdminPage).isEqualTo(4);
+        assertThat(largeAdminPage).isEqualTo(4);
+        // El cliente suma la carga del usuario actual y el conteo de su página
+        assertThat(smallUserPage).isEqualTo(6);
+        assertThat(largeUserPage).isEqualTo(6);
+    }
+
+    @Test
+    void customerNumberSearchAlsoMatchesTheShippingAddress() {
+        UserEntity customer = buyer("cliente@example.com");
+        Long street = orderService.createOrder(order(1), customer.getEmail()).getId();
+        Long other = orderService.createOrder(order(1), customer.getEmail()).getId();
+        jdbcTemplate.update("UPDATE orders SET shipping_address = 'San Martín 1234' WHERE id = ?", street);
+        jdbcTemplate.update("UPDATE orders SET shipping_address = 'Belgrano 50' WHERE id = ?", other);
+        loginAs(customer);
+
+        assertThat(orderService.getUserOrders(null, null, null, "1234", 0, 10).getContent())
+                .extracting(OrderResponse::getId)
+                .containsExactly(street);
+        // El número de orden sigue encontrando la orden aunque no aparezca en la dirección
+        assertThat(orderService.getUserOrders(null, null, null, "#" + other, 0, 10).getContent())
+                .extracting(OrderResponse::getId)
+                .contains(other);
+    }
+
+    // Sentencias de la orden sin contar los pedidos de bloques de ids: dependen de cuántos ids
+    // quedan en el bloque en memoria (que comparten todos los tests), no de la orden
+    private long statementsForOrder(int lines, String buyerEmail) {
+        long sequenceBefore = sequencePositions();
+        long statements = countStatements(() -> orderService.createOrder(order(lines), buyerEmail));
+        return statements - (sequencePositions() - sequenceBefore) / 50;
+    }
+
+    // Próximo valor de cada secuencia de la orden; cada nextval lo avanza en 50 (allocationSize)
+    private long sequencePositions() {
+        return jdbcTemplate.queryForObject("""
+                SELECT (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM order_details_seq)
+                     + (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM replenishments_seq)
+                """, Long.class);
+    }
+
+    private UserEntity buyer(String email) {
+        UserEntity buyer = user(email);
+        CartEntity cart = new CartEntity();
+        cart.setUser(buyer);
+        cart.setCreatedAt(LocalDateTime.now());
+        cartRepository.save(cart);
+        return buyer;
+    }
+
+    private OrderRequest order(int lines) {
+        return OrderRequest.builder()
+                .paymentMethodId(paymentMethodId)
+                .status(OrderStatus.PAID)
+                .paymentId("pago")
+                .details(products.subList(0, lines).stream()
+                        .map(product -> OrderDetailRequest.builder()
+                                .productId(product.getId())
+                                .quantity(1)
+                                .price(product.getPrice())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
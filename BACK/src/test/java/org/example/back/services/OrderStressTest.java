@@ -0,0 +1,164 @@
+package org.example.back.services;
+
+import org.example.back.entities.CartEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.entities.UserEntity;
+import org.example.back.enums.OrderStatus;
+import org.example.back.models.OrderDetailRequest;
+import org.example.back.models.OrderRequest;
+import org.example.back.repositories.CartRepository;
+import org.example.back.repositories.PaymentMethodRepository;
+import org.example.back.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Muchos webhooks de pago confirmando órdenes en paralelo sobre el mismo producto: nunca se vende
+ * más de lo que hay ni se toman unidades reservadas por otro checkout.
+ */
+class OrderStressTest extends PostgresIntegrationTest {
+
+    private static final int BUYERS = 200;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private PaymentMethodRepository paymentMethodRepository;
+
+    private ProductEntity product;
+    private Long paymentMethodId;
+
+    @BeforeEach
+    void setUp() {
+        CategoryEntity category = category("Marca", "Categoría");
+        product = product(category, "Termo", 50);
+        paymentMethodId = paymentMethodRepository.findAll().get(0).getId();
+    }
+
+    @Test
+    void parallelOrdersNeverOversell() throws Exception {
+        List<UserEntity> buyers = buyers("comprador", BUYERS);
+
+        long confirmed = placeInParallel(buyers);
+
+        assertThat(confirmed).isEqualTo(50);
+        assertThat(stock()).isZero();
+        assertThat(count("orders")).isEqualTo(50);
+        assertThat(count("order_details")).isEqualTo(50);
+        assertThat(count("replenishments")).isEqualTo(50);
+    }
+
+    @Test
+    void parallelOrdersLeaveReservedUnitsToTheirBuyer() throws Exception {
+        UserEntity reserving = buyers("reserva", 1).get(0);
+        stockReservationService.reserve(reserving.getId(), Map.of(product.getId(), 10));
+        List<UserEntity> buyers = buyers("comprador", BUYERS);
+
+        long confirmed = placeInParallel(buyers);
+
+        assertThat(confirmed).isEqualTo(40);
+        assertThat(stock()).isEqualTo(10);
+        orderService.createOrder(order(10), reserving.getEmail());
+        assertThat(stock()).isZero();
+        assertThat(stockReservationService.getReservedQuantity(product.getId())).isZero();
+    }
+
+    @Test
+    void reservationsCommittedByAnotherInstanceAreEnforcedByTheDecrement() throws Exception {
+        // La reserva existe solo en la base (la tomó otra instancia): el chequeo en memoria no la ve
+        UserEntity reserving = buyers("reserva", 1).get(0);
+        jdbcTemplate.update("""
+                INSERT INTO stock_reservations (id, user_id, product_id, quantity, created_at, expires_at)
+                VALUES (nextval('stock_reservations_seq'), ?, ?, 10, now(), now() + interval '15 minutes')
+                """, reserving.getId(), product.getId());
+        List<UserEntity> buyers = buyers("comprador", BUYERS);
+
+        long confirmed = placeInParallel(buyers);
+
+        assertThat(confirmed).isEqualTo(40);
+        assertThat(stock()).isEqualTo(10);
+    }
+
+    // Cada comprador confirma una orden de una unidad; devuelve cuántas se crearon
+    private long placeInParallel(List<UserEntity> buyers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Boolean>> tasks = buyers.stream()
+                    .<Callable<Boolean>>map(buyer -> () -> {
+                        try {
+                            orderService.createOrder(order(1), buyer.getEmail());
+                            return true;
+                        } catch (RuntimeException e) {
+                            assertThat(e).hasMessageStartingWith("Stock insuficiente para Termo");
+                            return false;
+                        }
+                    })
+                    .toList();
+            long confirmed = 0;
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    confirmed++;
+                }
+            }
+            return confirmed;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<UserEntity> buyers(String prefix, int count) {
+        List<UserEntity> buyers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UserEntity buyer = user(prefix + i + "@example.com");
+            CartEntity cart = new CartEntity();
+            cart.setUser(buyer);
+            cart.setCreatedAt(LocalDateTime.now());
+            cartRepository.save(cart);
+            buyers.add(buyer);
+        }
+        return buyers;
+    }
+
+    private OrderRequest order(int quantity) {
+        return OrderRequest.builder()
+                .paymentMethodId(paymentMethodId)
+                .status(OrderStatus.PAID)
+                .paymentId("pago")
+                .details(List.of(OrderDetailRequest.builder()
+                        .productId(product.getId())
+                        .quantity(quantity)
+                        .price(new BigDecimal("100.00"))
+                        .build()))
+                .build();
+    }
+
+    private int stock() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, product.getId());
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
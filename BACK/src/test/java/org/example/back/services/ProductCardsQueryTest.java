@@ -0,0 +1,58 @@
+package org.example.back.services;
+
+import org.example.back.dtos.ProductCardDTO;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCardsQueryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void cardsPageRunsTwoStatementsWhateverThePageSize() {
+        CategoryEntity category = category("Marca", "Categoría");
+        for (int i = 0; i < 30; i++) {
+            product(category, "Producto " + i, 10, "https://img/" + i + "-b.jpg", "https://img/" + i + "-a.jpg");
+        }
+
+        AtomicReference<Page<ProductCardDTO>> page = new AtomicReference<>();
+        long statements = countStatements(() -> page.set(productService.getActiveProductCards(PageRequest.of(0, 20))));
+
+        // La página de tarjetas y el COUNT; sin consultas por producto para imágenes, marca o categoría
+        assertThat(statements).isEqualTo(2);
+        assertThat(page.get().getContent()).hasSize(20);
+        assertThat(page.get().getTotalElements()).isEqualTo(30);
+    }
+
+    @Test
+    void cardsUseTheFirstImageOfTheListAndAStableOrder() {
+        CategoryEntity category = category("Marca", "Categoría");
+        List<ProductEntity> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(product(category, "Producto " + (5 - i), 10, "https://img/z-" + i + ".jpg", "https://img/a-" + i + ".jpg"));
+        }
+
+        List<ProductCardDTO> firstPage = productService.getActiveProductCards(PageRequest.of(0, 3)).getContent();
+        List<ProductCardDTO> secondPage = productService.getActiveProductCards(PageRequest.of(1, 3)).getContent();
+
+        List<ProductCardDTO> cards = new ArrayList<>(firstPage);
+        cards.addAll(secondPage);
+        assertThat(cards).extracting(ProductCardDTO::getId)
+                .containsExactlyElementsOf(products.stream().map(ProductEntity::getId).toList());
+        assertThat(cards).extracting(ProductCardDTO::getImageUrl)
+                .containsExactly("https://img/z-0.jpg", "https://img/z-1.jpg", "https://img/z-2.jpg",
+                        "https://img/z-3.jpg", "https://img/z-4.jpg");
+    }
+}
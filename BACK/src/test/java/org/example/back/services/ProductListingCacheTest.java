@@ -0,0 +1,88 @@
+package org.example.back.services;
+
+import org.example.back.dtos.request.BulkAdjustmentRequest;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.enums.PriceAdjustmentType;
+import org.example.back.models.Product;
+import org.example.back.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductListingCacheTest extends PostgresIntegrationTest {
+
+    private static final Pageable FIRST_PAGE_BY_PRICE = PageRequest.of(0, 2, Sort.by("price"));
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private CategoryEntity category;
+    private final List<ProductEntity> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        products.clear();
+        category = category("Marca", "Categoría");
+        for (int i = 1; i <= 4; i++) {
+            ProductEntity product = product(category, "Producto " + i, 10);
+            product.setPrice(new BigDecimal(i * 100));
+            products.add(productRepository.save(product));
+        }
+    }
+
+    @Test
+    void repricingAProductFromAnotherPageRecomputesTheCachedPage() {
+        assertThat(firstPageByPrice()).containsExactly(products.get(0).getId(), products.get(1).getId());
+
+        // El producto más caro (página 2) pasa a ser el más barato; la página 1 cacheada no lo contiene
+        ProductEntity cheapest = products.get(3);
+        productService.updateProduct(cheapest.getId(), Product.builder()
+                .name(cheapest.getName())
+                .description(cheapest.getDescription())
+                .price(new BigDecimal("50"))
+                .stock(cheapest.getStock())
+                .imageUrls(List.of())
+                .brandId(category.getBrand().getId())
+                .categoryId(category.getId())
+                .build());
+
+        assertThat(firstPageByPrice()).containsExactly(cheapest.getId(), products.get(0).getId());
+    }
+
+    @Test
+    void bulkPriceChangeRecomputesTheCachedPage() {
+        assertThat(firstPageByPrice()).containsExactly(products.get(0).getId(), products.get(1).getId());
+
+        // -90% al más caro: 400 pasa a 40 y queda primero
+        ProductEntity cheapest = products.get(3);
+        productService.adjustProducts(BulkAdjustmentRequest.builder()
+                .productIds(List.of(cheapest.getId()))
+                .priceAdjustmentType(PriceAdjustmentType.PERCENTAGE)
+                .priceChange(new BigDecimal("-90"))
+                .build());
+
+        assertThat(firstPageByPrice()).containsExactly(cheapest.getId(), products.get(0).getId());
+    }
+
+    // Como en una request con open-in-view: las imágenes se cargan al mapear la página
+    private List<Long> firstPageByPrice() {
+        return transactionTemplate.execute(status ->
+                productService.getAllProductsByCategory(category.getId(), FIRST_PAGE_BY_PRICE).getContent().stream()
+                        .map(Product::getId)
+                        .toList());
+    }
+}
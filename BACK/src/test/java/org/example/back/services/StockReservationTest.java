@@ -0,0 +1,69 @@
+package org.example.back.services;
+
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.entities.UserEntity;
+import org.example.back.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockReservationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UserEntity user;
+    private ProductEntity product;
+
+    @BeforeEach
+    void setUp() {
+        user = user("cliente@example.com");
+        CategoryEntity category = category("Marca", "Categoría");
+        product = product(category, "Termo", 5);
+    }
+
+    @Test
+    void checksTheCommittedStockEvenIfTheProductIsAlreadyLoaded() {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Como en initiatePayment: el producto ya está en el contexto de persistencia con stock 5
+            assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(5);
+
+            // Otra orden confirma su descuento mientras tanto
+            CompletableFuture.runAsync(() ->
+                    jdbcTemplate.update("UPDATE products SET stock = 1 WHERE id = ?", product.getId())).join();
+
+            assertThatThrownBy(() -> stockReservationService.reserve(user.getId(), Map.of(product.getId(), 2)))
+                    .hasMessageStartingWith("Stock insuficiente para Termo. Disponible: 1");
+        });
+        assertThat(stockReservationService.getReservedQuantity(product.getId())).isZero();
+    }
+
+    @Test
+    void rolledBackCheckoutRestoresThePreviousReservation() {
+        transactionTemplate.executeWithoutResult(status ->
+                stockReservationService.reserve(user.getId(), Map.of(product.getId(), 1)));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stockReservationService.reserve(user.getId(), Map.of(product.getId(), 3));
+            assertThat(stockReservationService.getReservedQuantity(product.getId())).isEqualTo(3);
+            status.setRollbackOnly();
+        });
+
+        assertThat(stockReservationService.getReservedQuantity(product.getId())).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM stock_reservations", Integer.class)).isEqualTo(1);
+
+        stockReservationService.release(user.getId());
+        assertThat(stockReservationService.getReservedQuantity(product.getId())).isZero();
+    }
+}
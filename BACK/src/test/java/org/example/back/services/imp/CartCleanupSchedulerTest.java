@@ -0,0 +1,48 @@
+package org.example.back.services.imp;
+
+import org.example.back.repositories.AbandonedCartSummaryRepository;
+import org.example.back.repositories.CartRepository;
+import org.example.back.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CartCleanupSchedulerTest {
+
+    private final CartRepository cartRepository = mock(CartRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    void aBatchThatFailsOnTheForeignKeyDoesNotStopTheCleanup() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(cartRepository.findEmptyCartIds(any(), eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(cartRepository.findEmptyCartIds(any(), eq(2L), any())).thenReturn(List.of(3L, 4L));
+        when(cartRepository.findEmptyCartIds(any(), eq(4L), any())).thenReturn(List.of());
+        // Se insertó un ítem en el carrito 2 mientras se borraba el primer lote
+        when(cartRepository.deleteEmptyCarts(List.of(1L, 2L)))
+                .thenThrow(new DataIntegrityViolationException("fk_cart_item_cart"));
+        when(cartRepository.deleteEmptyCarts(List.of(3L, 4L))).thenReturn(2);
+
+        CartCleanupScheduler scheduler = new CartCleanupScheduler(cartRepository,
+                mock(AbandonedCartSummaryRepository.class), mock(ProductRepository.class),
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(scheduler, "emptyRetentionDays", 7L);
+        ReflectionTestUtils.setField(scheduler, "batchSize", 2);
+
+        scheduler.deleteEmptyCarts();
+
+        verify(cartRepository).deleteEmptyCarts(List.of(3L, 4L));
+        verify(transactionManager).rollback(any());
+    }
+}
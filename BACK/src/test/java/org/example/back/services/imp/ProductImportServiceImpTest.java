@@ -0,0 +1,81 @@
+package org.example.back.services.imp;
+
+import jakarta.persistence.EntityManager;
+import org.example.back.dtos.response.BulkImportResponse;
+import org.example.back.entities.BrandEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.models.Product;
+import org.example.back.repositories.BrandRepository;
+import org.example.back.repositories.CategoryRepository;
+import org.example.back.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceImpTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final BrandRepository brandRepository = mock(BrandRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    void failedCommitIsReportedForItsChunkAndTheImportContinues() {
+        BrandEntity brand = new BrandEntity(1L, "Marca", new ArrayList<>(), true);
+        when(brandRepository.findAll()).thenReturn(List.of(brand));
+        when(categoryRepository.findAll()).thenReturn(List.of(new CategoryEntity(2L, "Categoría", brand, true)));
+        when(productRepository.findAllIdsAndNames()).thenReturn(List.of());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Falla el commit del primer bloque (500 filas); el segundo se confirma
+        doThrow(new TransactionSystemException("Could not commit JPA transaction"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+
+        ProductImportServiceImp importService = new ProductImportServiceImp(productRepository, brandRepository,
+                categoryRepository, mock(ApplicationEventPublisher.class), new TransactionTemplate(transactionManager));
+        EntityManager entityManager = mock(EntityManager.class);
+        AtomicLong ids = new AtomicLong();
+        doAnswer(invocation -> {
+            invocation.<ProductEntity>getArgument(0).setId(ids.incrementAndGet());
+            return null;
+        }).when(entityManager).persist(any());
+        ReflectionTestUtils.setField(importService, "entityManager", entityManager);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 600; i++) {
+            products.add(Product.builder()
+                    .name("Producto " + i)
+                    .description("Descripción")
+                    .price(BigDecimal.TEN)
+                    .stock(5)
+                    .brandId(1L)
+                    .categoryId(2L)
+                    .build());
+        }
+
+        BulkImportResponse response = importService.importProducts(products);
+
+        assertThat(response.getReceived()).isEqualTo(600);
+        assertThat(response.getCreated()).isEqualTo(100);
+        assertThat(response.getFailed()).isEqualTo(500);
+        assertThat(response.getErrors().get(0).getRow()).isEqualTo(1);
+        assertThat(response.getErrors().get(0).getMessage()).contains("Could not commit JPA transaction");
+    }
+}
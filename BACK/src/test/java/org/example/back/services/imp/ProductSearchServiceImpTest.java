@@ -0,0 +1,99 @@
+package org.example.back.services.imp;
+
+import org.example.back.entities.BrandEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.events.BrandChangedEvent;
+import org.example.back.mappers.CatalogMapper;
+import org.example.back.models.Product;
+import org.example.back.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchServiceImpTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchServiceImp searchService = new ProductSearchServiceImp(productRepository, new CatalogMapper());
+
+    private BrandEntity brand;
+    private CategoryEntity category;
+    private List<ProductEntity> products;
+
+    @BeforeEach
+    void setUp() {
+        brand = new BrandEntity(1L, "Stanley", new ArrayList<>(), true);
+        category = new CategoryEntity(10L, "Termos", brand, true);
+        products = new ArrayList<>();
+        for (long i = 1; i <= 30; i++) {
+            products.add(product(i, "Termo clásico " + i));
+        }
+        products.add(product(31L, "Mate de calabaza"));
+        when(productRepository.findByActiveTrue()).thenReturn(products);
+        searchService.rebuildIndex();
+    }
+
+    @Test
+    void returnsTheBestMatchesUpToTheLimit() {
+        List<Product> results = searchService.search("termo stanly", 5);
+
+        assertThat(results).hasSize(5);
+        assertThat(results).extracting(Product::getName)
+                .containsExactly("Termo clásico 1", "Termo clásico 10", "Termo clásico 11", "Termo clásico 12", "Termo clásico 13");
+    }
+
+    @Test
+    void callersCannotChangeTheIndexedProducts() {
+        Product result = searchService.search("mate", 1).get(0);
+        result.setName("Modificado");
+        result.getImageUrls().add("https://img/otra.jpg");
+
+        Product again = searchService.search("mate", 1).get(0);
+        assertThat(again.getName()).isEqualTo("Mate de calabaza");
+        assertThat(again.getImageUrls()).doesNotContain("https://img/otra.jpg");
+    }
+
+    @Test
+    void reindexesTheProductsOfARenamedBrand() {
+        brand.setName("Contigo");
+        when(productRepository.findByBrandIdAndActiveTrue(eq(1L), any(Sort.class))).thenReturn(products);
+
+        searchService.onBrandChanged(BrandChangedEvent.brand(1L));
+
+        assertThat(searchService.search("stanley", 100)).isEmpty();
+        assertThat(searchService.search("contigo mate", 100)).extracting(Product::getId).containsExactly(31L);
+    }
+
+    @Test
+    void dropsTheProductsOfADeactivatedCategory() {
+        when(productRepository.findByCategoryIdAndActiveTrue(eq(10L), any(Sort.class))).thenReturn(List.of());
+
+        searchService.onBrandChanged(BrandChangedEvent.category(1L, 10L));
+
+        assertThat(searchService.search("termo", 100)).isEmpty();
+    }
+
+    private ProductEntity product(long id, String name) {
+        ProductEntity product = new ProductEntity();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(name);
+        product.setBrand(brand);
+        product.setCategory(category);
+        product.setPrice(BigDecimal.TEN);
+        product.setImageUrls(new ArrayList<>());
+        product.setStock(5);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.back.services.imp;
+
+import org.example.back.repositories.OrderRepository;
+import org.example.back.repositories.ReportRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ReportServiceImpTest {
+
+    private final ReportRepository reportRepository = mock(ReportRepository.class);
+    private final ReportServiceImp reportService = new ReportServiceImp(mock(OrderRepository.class), reportRepository);
+
+    @Test
+    void abandonedCartReportRejectsLimitsOutOfRange() {
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusMonths(3);
+
+        assertThatThrownBy(() -> reportService.getAbandonedCartReport(start, end, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Limit must be greater than 0");
+        assertThatThrownBy(() -> reportService.getAbandonedCartReport(start, end, 101))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Limit cannot exceed 100");
+        verify(reportRepository, never()).getAbandonedCartsByDay(any(), any());
+    }
+}
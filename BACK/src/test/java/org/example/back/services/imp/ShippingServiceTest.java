@@ -0,0 +1,40 @@
+package org.example.back.services.imp;
+
+import org.example.back.dtos.ShippingDTO;
+import org.example.back.entities.ShippingEntity;
+import org.example.back.repositories.ShippingRepository;
+import org.example.back.services.CatalogVersionService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShippingServiceTest {
+
+    private final ShippingRepository shippingRepository = mock(ShippingRepository.class);
+    private final ShippingService shippingService = new ShippingService(shippingRepository, mock(CatalogVersionService.class));
+
+    @Test
+    void callersCannotChangeTheRegistry() {
+        ShippingEntity oca = new ShippingEntity();
+        oca.setId(1L);
+        oca.setName("OCA");
+        oca.setDisplayName("OCA");
+        oca.setBaseCost(new BigDecimal("1000.00"));
+        oca.setRequiresPostalCode(true);
+        when(shippingRepository.findAll()).thenReturn(List.of(oca));
+        when(shippingRepository.findByActiveTrue()).thenReturn(List.of(oca));
+
+        shippingService.getShippingById(1L).setBaseCost(BigDecimal.ZERO);
+        shippingService.getAllActiveShippingMethods().get(0).setDisplayName("Modificado");
+
+        ShippingDTO shipping = shippingService.getShippingById(1L);
+        assertThat(shipping.getBaseCost()).isEqualByComparingTo("1000.00");
+        assertThat(shipping.getDisplayName()).isEqualTo("OCA");
+        assertThat(shippingService.calculateShippingCost(1L, "C1000")).isEqualByComparingTo("1000.00");
+    }
+}
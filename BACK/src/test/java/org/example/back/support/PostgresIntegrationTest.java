@@ -0,0 +1,158 @@
+package org.example.back.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.example.back.entities.BrandEntity;
+import org.example.back.entities.CategoryEntity;
+import org.example.back.entities.ProductEntity;
+import org.example.back.entities.UserEntity;
+import org.example.back.enums.Role;
+import org.example.back.enums.TypeDoc;
+import org.example.back.repositories.BrandRepository;
+import org.example.back.repositories.CategoryRepository;
+import org.example.back.repositories.ProductRepository;
+import org.example.back.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base de los tests de integración: levanta un PostgreSQL real embebido (una vez por JVM), aplica las
+ * migraciones de Flyway y deja las tablas de negocio vacías antes de cada test. Las tareas programadas
+ * quedan apagadas para que no ejecuten SQL en medio de un conteo de sentencias.
+ */
+@SpringBootTest(properties = {
+        "scheduling.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "email.username=test@example.com",
+        "email.password=test",
+        "mercadopago.access.token=TEST-TOKEN",
+        "mercadopago.success.url=http://localhost/success",
+        "mercadopago.failure.url=http://localhost/failure",
+        "mercadopago.pending.url=http://localhost/pending",
+        "mercadopago.notification.url=http://localhost/notification",
+        "mercadopago.statement.descriptor=TEST"
+})
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    // Tablas que llenan los tests; métodos de pago, envíos y proveedores los crean los initializers al arrancar
+    private static final String BUSINESS_TABLES = """
+            shipment_tracking, shipments, order_details, orders, stock_reservations, cart_item, cart,
+            replenishments, purchase_order_details, purchase_orders, invoice_detail, invoice, abandoned_cart_summary,
+            product_images, products, category, brand, users
+            """;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected BrandRepository brandRepository;
+
+    @Autowired
+    protected CategoryRepository categoryRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo iniciar PostgreSQL embebido", e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @BeforeEach
+    void resetDatabase() {
+        jdbcTemplate.execute("TRUNCATE " + BUSINESS_TABLES + " RESTART IDENTITY CASCADE");
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        SecurityContextHolder.clearContext();
+    }
+
+    protected CategoryEntity category(String brandName, String categoryName) {
+        BrandEntity brand = brandRepository.save(new BrandEntity(null, brandName, null, true));
+        return categoryRepository.save(new CategoryEntity(null, categoryName, brand, true));
+    }
+
+    protected ProductEntity product(CategoryEntity category, String name, int stock, String... imageUrls) {
+        ProductEntity product = new ProductEntity();
+        product.setName(name);
+        product.setDescription(name);
+        product.setBrand(category.getBrand());
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("100.00"));
+        product.setImageUrls(new ArrayList<>(List.of(imageUrls)));
+        product.setStock(stock);
+        product.setActive(true);
+        return productRepository.save(product);
+    }
+
+    protected UserEntity user(String email) {
+        UserEntity user = UserEntity.builder()
+                .email(email)
+                .password("password")
+                .firstName("Test")
+                .lastName("User")
+                .address("Calle Falsa 123")
+                .city("Mendoza")
+                .role(Role.CUSTOMER)
+                .typeDoc(TypeDoc.DNI)
+                .nroDoc(email)
+                .emailVerified(true)
+                .termsAccepted(true)
+                .build();
+        return userRepository.save(user);
+    }
+
+    // Los servicios toman el usuario actual del nombre (email) de la autenticación
+    protected void loginAs(UserEntity user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+    }
+
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Cantidad de sentencias JDBC que Hibernate preparó mientras corría la acción
+    protected long countStatements(Runnable action) {
+        Statistics statistics = statistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
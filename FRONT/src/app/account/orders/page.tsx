@@ -11,7 +11,7 @@ import {
 } from 'lucide-react';
 import OrderService from '@/services/OrderService';
 import CartService from '@/services/CartService';
-import { OrderResponse } from '@/interfaces/data.interfaces';
+import { OrderResponse, ReorderResponse } from '@/interfaces/data.interfaces';
 import { toast } from 'react-toastify';
 import Link from 'next/link';
 import { useRouter } from 'next/navigation';
@@ -300,34 +300,39 @@ const UserOrders = () => {
     const handleReorder = async (orderId: number) => {
         try {
             setReorderingOrderId(orderId);
-            await CartService.reorderFromOrder(orderId);
+            const result: ReorderResponse = await CartService.reorderFromOrder(orderId);
             await getCart();
-            toast.success('Order items added to cart successfully');
-            setTimeout(() => {
-                router.push('/cart');
-            }, 1500);
-        } catch (error: unknown){
-            const err = error as { message?: string };
-        if (err.message?.includes('Stock insuficiente') || err.message?.includes('insufficient stock')) {
-                const productName = err.message.match(/para (.+?)\./)?.[1] || 'some products';
-                const available = err.message.match(/Disponible: (\d+)/)?.[1];
-                const requested = err.message.match(/Solicitado: (\d+)/)?.[1];
-                
-                toast.error(
+
+            // El backend agrega lo que hay en stock: las líneas capped se agregaron con menos unidades
+            // (o ninguna, si addedQuantity es 0) y hay que avisarlo
+            const cappedLines = result.lines.filter(line => line.capped);
+            if (cappedLines.length === result.lines.length && cappedLines.every(line => line.addedQuantity === 0)) {
+                toast.error('None of the products in this order are in stock right now.');
+                return;
+            }
+
+            if (cappedLines.length > 0) {
+                toast.warning(
                     <div>
-                        <p className="font-medium">Insufficient stock for {productName}</p>
-                        <p className="text-sm">Available: {available}, Requested: {requested}</p>
-                        <p className="text-sm mt-1">Only available quantity has been added to cart.</p>
+                        <p className="font-medium">Some products were added with less quantity than ordered</p>
+                        {cappedLines.map(line => (
+                            <p key={line.productId} className="text-sm">
+                                {line.addedQuantity === 0
+                                    ? `${line.productName}: out of stock, not added`
+                                    : `${line.productName}: ${line.addedQuantity} of ${line.requestedQuantity} added`}
+                            </p>
+                        ))}
                     </div>,
                     { autoClose: 5000 }
                 );
-                
-                setTimeout(() => {
-                    router.push('/cart');
-                }, 2000);
             } else {
-                toast.error('Error adding products to cart. Please try again.');
+                toast.success('Order items added to cart successfully');
             }
+            setTimeout(() => {
+                router.push('/cart');
+            }, cappedLines.length > 0 ? 2000 : 1500);
+        } catch {
+            toast.error('Error adding products to cart. Please try again.');
         } finally {
             setReorderingOrderId(null);
         }
@@ -133,6 +133,20 @@ export interface Cart {
   total: number;
 }
 
+// Una línea por producto de la orden; capped indica que se agregó menos de lo pedido por falta de stock
+export interface ReorderLine {
+  productId: number;
+  productName: string;
+  requestedQuantity: number;
+  addedQuantity: number;
+  capped: boolean;
+}
+
+export interface ReorderResponse {
+  cart: Cart;
+  lines: ReorderLine[];
+}
+
 // Order Interfaces
 
 export interface OrderResponse {